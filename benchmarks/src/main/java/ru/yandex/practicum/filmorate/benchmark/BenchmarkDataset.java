@@ -0,0 +1,161 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts the application without a web server on a fresh in-memory H2 database and seeds it
+ * with the configured number of films, users, likes and friendships. Likes are skewed towards
+ * low film ids so that popularity queries see a realistic long tail. The seed is fixed, so
+ * every fork works on the same data.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+    private static final int GENRES = 6;
+    private static final int MPA_RATINGS = 5;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000", "10000"})
+    public int films;
+
+    @Param({"1000", "10000"})
+    public int users;
+
+    @Param({"20"})
+    public int likesPerUser;
+
+    @Param({"10"})
+    public int friendsPerUser;
+
+    private ConfigurableApplicationContext context;
+
+    FilmStorage filmStorage;
+    UserStorage userStorage;
+    FilmService filmService;
+    UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                        "logging.level.root=WARN")
+                .run();
+        seed(context.getBean(JdbcTemplate.class), new Random(42));
+
+        context.getBean(FilmLeaderboard.class).rebuild();
+        context.getBean(LikeIndex.class).rebuild();
+        context.getBean(FilmSearchIndex.class).rebuild();
+        context.getBean(FriendGraph.class).rebuild();
+
+        filmStorage = context.getBean(FilmStorage.class);
+        userStorage = context.getBean(UserStorage.class);
+        filmService = context.getBean(FilmService.class);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    long randomFilmId() {
+        return ThreadLocalRandom.current().nextInt(films) + 1;
+    }
+
+    long randomUserId() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+
+    long randomGenreId() {
+        return ThreadLocalRandom.current().nextInt(GENRES) + 1;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, Random random) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"user" + i + "@example.com", "user" + i, "User " + i,
+                    Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(random.nextInt(15000)))});
+        }
+        batch(jdbcTemplate, "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)", rows);
+
+        for (int i = 1; i <= films; i++) {
+            rows.add(new Object[]{"Film " + i, "Description of film " + i,
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(27000))),
+                    60 + random.nextInt(120), random.nextInt(MPA_RATINGS) + 1});
+        }
+        batch(jdbcTemplate, "INSERT INTO films (name, description, release_date, duration, mpa_id) " +
+                "VALUES (?, ?, ?, ?, ?)", rows);
+
+        for (int filmId = 1; filmId <= films; filmId++) {
+            int first = random.nextInt(GENRES) + 1;
+            rows.add(new Object[]{filmId, first});
+            if (random.nextBoolean()) {
+                rows.add(new Object[]{filmId, first % GENRES + 1});
+            }
+        }
+        batch(jdbcTemplate, "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", rows);
+
+        int likes = Math.min(likesPerUser, films);
+        for (int userId = 1; userId <= users; userId++) {
+            Set<Integer> liked = new HashSet<>();
+            while (liked.size() < likes) {
+                double skewed = random.nextDouble() * random.nextDouble();
+                liked.add((int) (skewed * films) + 1);
+            }
+            for (int filmId : liked) {
+                rows.add(new Object[]{filmId, userId});
+            }
+        }
+        batch(jdbcTemplate, "INSERT INTO likes (film_id, user_id) VALUES (?, ?)", rows);
+
+        int friends = Math.min(friendsPerUser, users - 1);
+        for (int userId = 1; userId <= users; userId++) {
+            Set<Integer> added = new HashSet<>();
+            while (added.size() < friends) {
+                int friendId = random.nextInt(users) + 1;
+                if (friendId != userId) {
+                    added.add(friendId);
+                }
+            }
+            for (int friendId : added) {
+                rows.add(new Object[]{userId, friendId});
+            }
+        }
+        batch(jdbcTemplate, "INSERT INTO friends (user_id, friend_id, status) VALUES (?, ?, 'UNCONFIRMED')", rows);
+    }
+
+    private static void batch(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+        rows.clear();
+    }
+}
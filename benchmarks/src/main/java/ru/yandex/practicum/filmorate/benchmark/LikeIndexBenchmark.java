@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.storage.IdBucket;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one like and one unlike on a film that already has {@code likes} likes, with the
+ * copy-on-write array used before and with {@link IdBucket}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LikeIndexBenchmark {
+    @Param({"10000", "1000000"})
+    public int likes;
+
+    private int[] users;
+    private IdBucket bucket;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        users = new int[likes];
+        for (int i = 0; i < likes; i++) {
+            users[i] = i * 2;
+        }
+        bucket = new IdBucket(users);
+    }
+
+    @Benchmark
+    public int[] copyOnWriteLikeAndUnlike() {
+        int user = nextUser();
+        return SortedIntArrays.delete(SortedIntArrays.insert(users, user), user);
+    }
+
+    @Benchmark
+    public boolean bucketLikeAndUnlike() {
+        int user = nextUser();
+        return bucket.add(user) && bucket.remove(user);
+    }
+
+    private int nextUser() {
+        next = (next + 7919) % likes;
+        return next * 2 + 1;
+    }
+}
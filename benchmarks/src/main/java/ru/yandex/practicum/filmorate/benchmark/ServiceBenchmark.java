@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service calls as the controllers issue them, including the leaderboard, search index and
+ * friend graph lookups that sit in front of the storage.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final int TOP = 10;
+
+    @Benchmark
+    public Collection<Film> popularFilms(BenchmarkDataset dataset) {
+        return dataset.filmService.getPopularFilms(TOP, null, null, FilmField.DEFAULT);
+    }
+
+    @Benchmark
+    public Collection<Film> popularFilmsByGenre(BenchmarkDataset dataset) {
+        return dataset.filmService.getPopularFilms(TOP, dataset.randomGenreId(), null, FilmField.DEFAULT);
+    }
+
+    @Benchmark
+    public Film filmById(BenchmarkDataset dataset) {
+        return dataset.filmService.getFilmById(dataset.randomFilmId(), FilmField.DEFAULT);
+    }
+
+    @Benchmark
+    public List<Film> searchFilms(BenchmarkDataset dataset) {
+        return dataset.filmService.searchFilms("film " + dataset.randomFilmId(), TOP, true);
+    }
+
+    @Benchmark
+    public List<User> commonFriends(BenchmarkDataset dataset) {
+        return dataset.userService.getCommonFriends(dataset.randomUserId(), dataset.randomUserId(), false);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot read paths of {@code FilmDbStorage} and {@code UserDbStorage}, measured against the
+ * database directly, without the in-memory indexes of the service layer.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    private static final int PAGE_SIZE = 50;
+    private static final int TOP = 10;
+
+    @Benchmark
+    public Optional<Film> filmById(BenchmarkDataset dataset) {
+        return dataset.filmStorage.getFilmById(dataset.randomFilmId());
+    }
+
+    @Benchmark
+    public List<Film> filmsPage(BenchmarkDataset dataset) {
+        return dataset.filmStorage.getFilmsAfter(dataset.randomFilmId(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Collection<Film> popularFilms(BenchmarkDataset dataset) {
+        return dataset.filmStorage.getPopularFilms(TOP);
+    }
+
+    @Benchmark
+    public Collection<Film> popularFilmsByGenre(BenchmarkDataset dataset) {
+        return dataset.filmStorage.getPopularFilms(TOP, dataset.randomGenreId(), null);
+    }
+
+    @Benchmark
+    public Optional<User> userById(BenchmarkDataset dataset) {
+        return dataset.userStorage.getUserById(dataset.randomUserId());
+    }
+
+    @Benchmark
+    public Collection<User> friends(BenchmarkDataset dataset) {
+        return dataset.userStorage.getFriends(dataset.randomUserId(), true);
+    }
+
+    @Benchmark
+    public List<User> commonFriends(BenchmarkDataset dataset) {
+        return dataset.userStorage.getCommonFriends(dataset.randomUserId(), dataset.randomUserId(), false);
+    }
+}
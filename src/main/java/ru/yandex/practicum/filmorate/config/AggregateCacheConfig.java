@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.config.datasource.RoutingContext;
+import ru.yandex.practicum.filmorate.storage.AggregateCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.user.UserCache;
+
+/**
+ * Creates the film and user caches and exports their statistics as {@code cache.gets},
+ * {@code cache.evictions}, {@code cache.size} and {@code cache.weight}, tagged with the cache name.
+ */
+@Configuration
+public class AggregateCacheConfig {
+
+    @Bean
+    public FilmCache filmCache(AggregateCacheProperties properties, MeterRegistry registry) {
+        FilmCache cache = new FilmCache(properties.films().enabled(), properties.films().maxWeight(),
+                RoutingContext::onPrimary);
+        bind(cache, "films", registry);
+        return cache;
+    }
+
+    @Bean
+    public UserCache userCache(AggregateCacheProperties properties, MeterRegistry registry) {
+        UserCache cache = new UserCache(properties.users().enabled(), properties.users().maxWeight(),
+                RoutingContext::onPrimary);
+        bind(cache, "users", registry);
+        return cache;
+    }
+
+    private static void bind(AggregateCache<?> cache, String name, MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", cache, AggregateCache::getHitCount)
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, AggregateCache::getMissCount)
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, AggregateCache::getEvictionCount)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", cache, AggregateCache::getSize)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.weight", cache, AggregateCache::getWeight)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
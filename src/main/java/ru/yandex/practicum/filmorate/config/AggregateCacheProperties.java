@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits of the film and user caches. The weight of a cached aggregate is about the number
+ * of ids it holds: one for the aggregate plus one per like, genre or friend.
+ */
+@ConfigurationProperties("filmorate.cache")
+public record AggregateCacheProperties(@DefaultValue Limits films,
+                                       @DefaultValue Limits users) {
+
+    public record Limits(@DefaultValue("true") boolean enabled,
+                         @DefaultValue("1000000") long maxWeight) {
+    }
+}
@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("filmorate.export")
+public record ExportProperties(@DefaultValue("500") int fetchSize) {
+}
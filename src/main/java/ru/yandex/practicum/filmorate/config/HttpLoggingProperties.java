@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("filmorate.http-logging")
+public record HttpLoggingProperties(@DefaultValue("false") boolean sampled,
+                                    @DefaultValue("0.01") double sampleRate,
+                                    @DefaultValue("1s") Duration slowThreshold,
+                                    @DefaultValue("10000") int queueCapacity) {
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("filmorate.import")
+public record ImportProperties(@DefaultValue("500") int chunkSize, @DefaultValue("5000") int maxChunkSize) {
+
+    public int resolveChunkSize(Integer requested) {
+        return RequestLimits.resolve(requested, chunkSize, maxChunkSize, "Размер пакета должен быть положительным");
+    }
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("filmorate.likes.write-behind")
+public record LikeWriteBehindProperties(@DefaultValue("false") boolean enabled,
+                                        @DefaultValue("10000") int capacity,
+                                        @DefaultValue("500") int flushSize,
+                                        @DefaultValue("200ms") Duration flushInterval,
+                                        @DefaultValue("1s") Duration submitTimeout) {
+}
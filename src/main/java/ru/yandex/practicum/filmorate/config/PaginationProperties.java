@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("filmorate.pagination")
+public record PaginationProperties(@DefaultValue("50") int defaultSize, @DefaultValue("500") int maxSize) {
+
+    public int resolveSize(Integer size) {
+        return RequestLimits.resolve(size, defaultSize, maxSize, "Размер страницы должен быть положительным");
+    }
+}
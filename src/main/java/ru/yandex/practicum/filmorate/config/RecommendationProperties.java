@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("filmorate.recommendations")
+public record RecommendationProperties(@DefaultValue("10") int defaultLimit,
+                                       @DefaultValue("100") int maxLimit,
+                                       @DefaultValue("20") int neighbours,
+                                       @DefaultValue("false") boolean precompute,
+                                       @DefaultValue("5m") Duration refreshInterval) {
+
+    public int resolveLimit(Integer limit) {
+        return RequestLimits.resolve(limit, defaultLimit, maxLimit,
+                "Количество рекомендаций должно быть положительным");
+    }
+}
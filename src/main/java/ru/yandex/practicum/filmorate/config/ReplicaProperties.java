@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("filmorate.datasource.replica")
+public record ReplicaProperties(@DefaultValue("false") boolean enabled,
+                                String url,
+                                String username,
+                                String password,
+                                @DefaultValue("10") int maximumPoolSize,
+                                @DefaultValue("5s") Duration maxLag,
+                                @DefaultValue("1s") Duration heartbeatInterval,
+                                @DefaultValue("5s") Duration readYourWritesWindow) {
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.config;
+
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+
+final class RequestLimits {
+    private RequestLimits() {
+    }
+
+    /**
+     * Returns the requested size capped at {@code max}, or the default when nothing was requested.
+     * A non-positive request is rejected with the given message.
+     */
+    static int resolve(Integer requested, int defaultValue, int max, String error) {
+        if (requested == null) {
+            return Math.min(defaultValue, max);
+        }
+        if (requested <= 0) {
+            throw new ValidationException(error);
+        }
+        return Math.min(requested, max);
+    }
+}
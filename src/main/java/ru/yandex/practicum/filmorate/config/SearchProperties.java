@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("filmorate.search")
+public record SearchProperties(@DefaultValue("20") int defaultLimit,
+                               @DefaultValue("100") int maxLimit,
+                               @DefaultValue("0.2") double likeBoostWeight) {
+
+    public int resolveLimit(Integer limit) {
+        return RequestLimits.resolve(limit, defaultLimit, maxLimit, "Количество результатов должно быть положительным");
+    }
+}
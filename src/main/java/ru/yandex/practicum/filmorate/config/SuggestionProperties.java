@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("filmorate.suggestions")
+public record SuggestionProperties(@DefaultValue("10") int defaultLimit, @DefaultValue("100") int maxLimit) {
+
+    public int resolveLimit(Integer limit) {
+        return RequestLimits.resolve(limit, defaultLimit, maxLimit,
+                "Количество предложений друзей должно быть положительным");
+    }
+}
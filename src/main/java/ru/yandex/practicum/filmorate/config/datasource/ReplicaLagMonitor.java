@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.config.datasource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.config.ReplicaProperties;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures replica lag with a heartbeat: the current time is written to the primary, and
+ * the lag is how far the newest heartbeat visible on the replica is behind now. The replica
+ * is unusable until the first successful measurement and whenever a measurement fails.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ReplicaProperties properties;
+    private volatile Duration lag;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, ReplicaProperties properties) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.heartbeatInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        Duration current = lag;
+        return current != null && current.compareTo(properties.maxLag()) <= 0;
+    }
+
+    public Duration getLag() {
+        return lag;
+    }
+
+    void check() {
+        try {
+            primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.from(Instant.now()));
+            Timestamp beatAt = replica.queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1",
+                    Timestamp.class);
+            lag = beatAt == null ? null : Duration.between(beatAt.toInstant(), Instant.now());
+        } catch (DataAccessException e) {
+            if (lag != null) {
+                log.warn("Реплика недоступна, чтение переключено на основную базу", e);
+            }
+            lag = null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.config.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread flag that pins all reads of the current request to the primary.
+ */
+public final class RoutingContext {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = ThreadLocal.withInitial(() -> false);
+
+    private RoutingContext() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get();
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(true);
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * Runs the reads on the primary and restores the previous routing afterwards.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (isPrimaryRequired()) {
+            return reads.get();
+        }
+        requirePrimary();
+        try {
+            return reads.get();
+        } finally {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Reads fall
+ * back to the primary while the replica lags too far behind or the current request must see
+ * its own writes. Must be wrapped in a {@code LazyConnectionDataSourceProxy}, otherwise the
+ * connection is taken before the read-only flag of the transaction is known.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final BooleanSupplier replicaUsable;
+
+    public RoutingDataSource(BooleanSupplier replicaUsable) {
+        this.replicaUsable = replicaUsable;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !RoutingContext.isPrimaryRequired()
+                && replicaUsable.getAsBoolean()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
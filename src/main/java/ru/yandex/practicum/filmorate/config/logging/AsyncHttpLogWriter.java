@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.config.logging;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Precorrelation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands already formatted log messages to a background thread through a bounded queue. When
+ * the queue is full the message is dropped and counted, so request threads never wait for the
+ * log appender.
+ */
+@Slf4j
+public class AsyncHttpLogWriter implements HttpLogWriter {
+    private final HttpLogWriter delegate;
+    private final BlockingQueue<Entry> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private Thread worker;
+
+    public AsyncHttpLogWriter(HttpLogWriter delegate, int capacity) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::drain, "http-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (worker != null) {
+            worker.interrupt();
+            worker.join();
+        }
+        List<Entry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(this::writeQuietly);
+    }
+
+    @Override
+    public boolean isActive() {
+        return delegate.isActive();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, String request) {
+        enqueue(new Entry(precorrelation, null, request));
+    }
+
+    @Override
+    public void write(Correlation correlation, String response) {
+        enqueue(new Entry(correlation, correlation, response));
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void enqueue(Entry entry) {
+        if (!queue.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                writeQuietly(queue.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeQuietly(Entry entry) {
+        try {
+            if (entry.correlation() != null) {
+                delegate.write(entry.correlation(), entry.message());
+            } else {
+                delegate.write(entry.precorrelation(), entry.message());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Не удалось записать HTTP-лог", e);
+        }
+    }
+
+    private record Entry(Precorrelation precorrelation, Correlation correlation, String message) {
+    }
+}
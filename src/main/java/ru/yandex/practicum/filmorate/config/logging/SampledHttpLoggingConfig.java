@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.config.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.Strategy;
+import org.zalando.logbook.core.DefaultHttpLogWriter;
+import ru.yandex.practicum.filmorate.config.HttpLoggingProperties;
+
+/**
+ * Replaces Logbook's log-everything strategy and synchronous writer when
+ * {@code filmorate.http-logging.sampled=true}. Bodies are truncated by Logbook itself
+ * according to {@code logbook.write.max-body-size}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "filmorate.http-logging.sampled", havingValue = "true")
+public class SampledHttpLoggingConfig {
+
+    @Bean
+    public Strategy sampledStrategy(HttpLoggingProperties properties) {
+        return new SampledStrategy(properties.sampleRate(), properties.slowThreshold());
+    }
+
+    @Bean
+    public AsyncHttpLogWriter asyncHttpLogWriter(HttpLoggingProperties properties, MeterRegistry registry) {
+        AsyncHttpLogWriter writer = new AsyncHttpLogWriter(new DefaultHttpLogWriter(), properties.queueCapacity());
+        FunctionCounter.builder("filmorate.http.log.dropped", writer, AsyncHttpLogWriter::getDroppedCount)
+                .register(registry);
+        Gauge.builder("filmorate.http.log.queue", writer, AsyncHttpLogWriter::getQueueSize)
+                .register(registry);
+        return writer;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.config.logging;
+
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Logs a sampled fraction of requests together with their responses, plus every request that
+ * ended with an error status or took longer than the slow threshold. Response bodies are only
+ * buffered for sampled requests; errors and slow requests outside the sample are logged
+ * without the response body.
+ *
+ * <p>Logbook passes the same request object to every step of an exchange, so the sampling
+ * decision is derived from its identity hash instead of being stored between the steps.
+ */
+public class SampledStrategy implements Strategy {
+    private static final int BUCKETS = 10_000;
+
+    private final int sampledBuckets;
+    private final Duration slowThreshold;
+
+    public SampledStrategy(double sampleRate, Duration slowThreshold) {
+        this.sampledBuckets = (int) Math.round(Math.min(Math.max(sampleRate, 0), 1) * BUCKETS);
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request, Sink sink) {
+        // the request is written together with its response, once it is known whether it qualifies
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        return isSampled(request) ? response.withBody() : response.withoutBody();
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response,
+                      Sink sink) throws IOException {
+        if (isSampled(request)
+                || response.getStatus() >= 400
+                || correlation.getDuration().compareTo(slowThreshold) >= 0) {
+            sink.writeBoth(correlation, request, response);
+        }
+    }
+
+    boolean isSampled(HttpRequest request) {
+        int hash = System.identityHashCode(request) * 0x9E3779B9;
+        return Math.floorMod(hash, BUCKETS) < sampledBuckets;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.config.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikeListener;
+
+/**
+ * Business counters: applied likes, friendship changes and errors returned by the
+ * {@code ErrorHandler}. Likes are counted as a like listener, so likes applied by the
+ * write-behind buffer are included.
+ */
+@Component
+public class FilmorateMetrics implements FilmLikeListener {
+    private final MeterRegistry registry;
+    private final Counter likesAdded;
+    private final Counter likesRemoved;
+    private final Counter friendsAdded;
+    private final Counter friendsRemoved;
+
+    public FilmorateMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.likesAdded = Counter.builder("filmorate.likes").tag("action", "added").register(registry);
+        this.likesRemoved = Counter.builder("filmorate.likes").tag("action", "removed").register(registry);
+        this.friendsAdded = Counter.builder("filmorate.friendships").tag("action", "added").register(registry);
+        this.friendsRemoved = Counter.builder("filmorate.friendships").tag("action", "removed").register(registry);
+    }
+
+    @Override
+    public void likeAdded(long filmId, long userId) {
+        likesAdded.increment();
+    }
+
+    @Override
+    public void likeRemoved(long filmId, long userId) {
+        likesRemoved.increment();
+    }
+
+    public void friendAdded() {
+        friendsAdded.increment();
+    }
+
+    public void friendRemoved() {
+        friendsRemoved.increment();
+    }
+
+    public void error(int status, Throwable e) {
+        registry.counter("filmorate.errors",
+                "status", String.valueOf(status),
+                "exception", e.getClass().getSimpleName()).increment();
+    }
+}
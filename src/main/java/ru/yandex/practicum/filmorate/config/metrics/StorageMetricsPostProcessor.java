@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+/**
+ * Times every call of the {@code FilmStorage} and {@code UserStorage} beans as
+ * {@code filmorate.storage{storage, method}}. Beans that are already proxied for
+ * transactions get the timer as their outermost advice, so transaction handling is
+ * included in the measured time.
+ */
+@Component
+public class StorageMetricsPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public StorageMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String storage = storageName(bean);
+        if (storage == null) {
+            return bean;
+        }
+        MethodInterceptor timing = invocation -> {
+            Timer.Sample sample = Timer.start();
+            try {
+                return invocation.proceed();
+            } finally {
+                sample.stop(Timer.builder("filmorate.storage")
+                        .tag("storage", storage)
+                        .tag("method", invocation.getMethod().getName())
+                        .register(registry.getObject()));
+            }
+        };
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, timing);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(timing);
+        return proxyFactory.getProxy();
+    }
+
+    private static String storageName(Object bean) {
+        if (bean instanceof FilmStorage) {
+            return "film";
+        }
+        if (bean instanceof UserStorage) {
+            return "user";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+final class ConditionalGet {
+    private ConditionalGet() {
+    }
+
+    /**
+     * Answers with 304 when {@code If-None-Match} already carries the current ETag, without
+     * calling the body supplier. The ETag is only sent with successful responses, so a client
+     * never receives one for a resource that does not exist.
+     */
+    static <T> ResponseEntity<T> respond(String ifNoneMatch, String eTag, Supplier<T> body) {
+        String quoted = "\"" + eTag + "\"";
+        if (matches(ifNoneMatch, quoted)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(quoted).build();
+        }
+        T value = body.get();
+        return ResponseEntity.ok()
+                .eTag(quoted)
+                .body(value);
+    }
+
+    /**
+     * Extends the ETag of a resource with the requested fields, so that projections of the
+     * same version never share a tag with each other or with the full representation.
+     */
+    static String forFields(String eTag, Set<? extends Enum<?>> fields, Set<? extends Enum<?>> defaults) {
+        if (fields.equals(defaults)) {
+            return eTag;
+        }
+        long mask = 0;
+        for (Enum<?> field : fields) {
+            mask |= 1L << field.ordinal();
+        }
+        return eTag + "-f" + Long.toString(mask, 36);
+    }
+
+    private static boolean matches(String ifNoneMatch, String quoted) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(quoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+
+import java.util.Collection;
+
+/**
+ * Writes only the properties listed in {@code fields=}. The controllers pass the same fields
+ * to the storage, so the omitted properties are not loaded in the first place.
+ */
+@RestControllerAdvice(assignableTypes = {FilmController.class, UserController.class})
+public class FieldsResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+    private static final String FIELDS_PARAMETER = "fields";
+    private static final String WITH_FRIENDS_PARAMETER = "withFriends";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(FIELDS_PARAMETER);
+        boolean withFriends = !"false".equals(servletRequest.getServletRequest().getParameter(WITH_FRIENDS_PARAMETER));
+        if (fields == null || fields.isBlank()) {
+            return;
+        }
+        SimpleFilterProvider filters = new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+        Object element = firstElement(bodyContainer.getValue());
+        if (element instanceof Film) {
+            filters.addFilter(Film.FIELDS_FILTER,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(FilmField.jsonNames(FilmField.parse(fields))));
+        } else if (element instanceof User) {
+            filters.addFilter(User.FIELDS_FILTER,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(UserField.jsonNames(UserField.resolve(fields, withFriends))));
+        } else {
+            return;
+        }
+        bodyContainer.setFilters(filters);
+    }
+
+    private static Object firstElement(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.isEmpty() ? null : collection.iterator().next();
+        }
+        return value;
+    }
+}
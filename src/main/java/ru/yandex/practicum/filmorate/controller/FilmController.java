@@ -1,18 +1,39 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.config.ImportProperties;
+import ru.yandex.practicum.filmorate.config.PaginationProperties;
+import ru.yandex.practicum.filmorate.config.SearchProperties;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmImportReport;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/films")
 @RequiredArgsConstructor
 public class FilmController {
     private final FilmService filmService;
+    private final PaginationProperties paginationProperties;
+    private final ImportProperties importProperties;
+    private final SearchProperties searchProperties;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public Film addFilm(@RequestBody Film film) {
@@ -20,6 +41,17 @@ public class FilmController {
         return filmService.addFilm(film);
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public FilmImportReport importFilms(InputStream body,
+                                        @RequestParam(required = false) Integer chunkSize) throws IOException {
+        int resolvedChunkSize = importProperties.resolveChunkSize(chunkSize);
+        try (MappingIterator<Film> films = objectMapper.readerFor(Film.class).readValues(body)) {
+            return filmService.importFilms(films, resolvedChunkSize);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Некорректный формат импорта: " + e.getOriginalMessage());
+        }
+    }
+
     @PutMapping
     public Film updateFilm(@RequestBody Film film) {
         validateFilm(film);
@@ -35,13 +67,27 @@ public class FilmController {
     }
 
     @GetMapping("/{id}")
-    public Film getFilmById(@PathVariable long id) {
-        return filmService.getFilmById(id);
+    public ResponseEntity<Film> getFilmById(@PathVariable long id,
+                                            @RequestParam(required = false) String fields,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<FilmField> filmFields = FilmField.parse(fields);
+        String eTag = ConditionalGet.forFields(filmService.getFilmETag(id), filmFields, FilmField.DEFAULT);
+        return ConditionalGet.respond(ifNoneMatch, eTag, () -> filmService.getFilmById(id, filmFields));
     }
 
     @GetMapping
-    public Collection<Film> getAllFilms() {
-        return filmService.getAllFilms();
+    public ResponseEntity<Collection<Film>> getAllFilms(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(required = false) String fields) {
+        Set<FilmField> filmFields = FilmField.parse(fields);
+        int pageSize = paginationProperties.resolveSize(size);
+        return PageCursor.toPage(filmService.getFilmsPage(PageCursor.decode(cursor), pageSize + 1, filmFields),
+                pageSize, Film::getId);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportFilms() {
+        return outputStream -> filmService.exportFilms(film -> writeLine(outputStream, film));
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -55,8 +101,33 @@ public class FilmController {
     }
 
     @GetMapping("/popular")
-    public Collection<Film> getPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getPopularFilms(count);
+    public ResponseEntity<Collection<Film>> getPopularFilms(@RequestParam(defaultValue = "10") int count,
+                                                            @RequestParam(required = false) Long genreId,
+                                                            @RequestParam(required = false) Integer year,
+                                                            @RequestParam(required = false) String fields,
+                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<FilmField> filmFields = FilmField.parse(fields);
+        String eTag = ConditionalGet.forFields(filmService.getPopularFilmsETag(count, genreId, year), filmFields,
+                FilmField.DEFAULT);
+        return ConditionalGet.respond(ifNoneMatch, eTag,
+                () -> filmService.getPopularFilms(count, genreId, year, filmFields));
+    }
+
+    @GetMapping("/search")
+    public Collection<Film> searchFilms(@RequestParam String q,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestParam(defaultValue = "false") boolean boostByLikes,
+                                        @RequestParam(required = false) String fields) {
+        return filmService.searchFilms(q, searchProperties.resolveLimit(limit), boostByLikes, FilmField.parse(fields));
+    }
+
+    private void writeLine(OutputStream outputStream, Film film) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(film));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private void validateFilm(Film film) {
@@ -1,21 +1,35 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.config.PaginationProperties;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.config.SuggestionProperties;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final RecommendationService recommendationService;
+    private final PaginationProperties paginationProperties;
+    private final SuggestionProperties suggestionProperties;
+    private final RecommendationProperties recommendationProperties;
 
     @PostMapping
     public User addUser(@RequestBody @Validated User user) {
@@ -38,13 +52,20 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public User getUserById(@PathVariable long id) {
-        return userService.getUserById(id);
+    public User getUserById(@PathVariable long id,
+                            @RequestParam(required = false) String fields) {
+        return userService.getUserById(id, UserField.parse(fields).contains(UserField.FRIENDS));
     }
 
     @GetMapping
-    public Collection<User> getAllUsers() {
-        return userService.getAllUsers();
+    public ResponseEntity<Collection<User>> getAllUsers(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(defaultValue = "true") boolean withFriends,
+                                                        @RequestParam(required = false) String fields) {
+        boolean loadFriends = UserField.resolve(fields, withFriends).contains(UserField.FRIENDS);
+        int pageSize = paginationProperties.resolveSize(size);
+        return PageCursor.toPage(userService.getUsersPage(PageCursor.decode(cursor), pageSize + 1, loadFriends),
+                pageSize, User::getId);
     }
 
     @PutMapping("/{id}/friends/{friendId}")
@@ -59,13 +80,40 @@ public class UserController {
     }
 
     @GetMapping("/{id}/friends")
-    public Collection<User> getFriends(@PathVariable long id) {
-        return userService.getFriends(id);
+    public ResponseEntity<Collection<User>> getFriends(@PathVariable long id,
+                                                       @RequestParam(defaultValue = "true") boolean withFriends,
+                                                       @RequestParam(required = false) String fields,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<UserField> userFields = UserField.resolve(fields, withFriends);
+        boolean loadFriends = userFields.contains(UserField.FRIENDS);
+        String eTag = ConditionalGet.forFields(userService.getFriendsETag(id), userFields, UserField.DEFAULT);
+        return ConditionalGet.respond(ifNoneMatch, eTag,
+                () -> userService.getFriends(id, loadFriends));
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public Collection<User> getFriendSuggestions(@PathVariable long id,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 @RequestParam(defaultValue = "true") boolean withFriends,
+                                                 @RequestParam(required = false) String fields) {
+        boolean loadFriends = UserField.resolve(fields, withFriends).contains(UserField.FRIENDS);
+        return userService.getFriendSuggestions(id, suggestionProperties.resolveLimit(limit), loadFriends);
     }
 
     @GetMapping("/{id}/friends/common/{otherId}")
-    public Collection<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
-        return userService.getCommonFriends(id, otherId);
+    public Collection<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId,
+                                             @RequestParam(defaultValue = "true") boolean withFriends,
+                                             @RequestParam(required = false) String fields) {
+        boolean loadFriends = UserField.resolve(fields, withFriends).contains(UserField.FRIENDS);
+        return userService.getCommonFriends(id, otherId, loadFriends);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public Collection<Film> getRecommendations(@PathVariable long id,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) String fields) {
+        return recommendationService.getRecommendations(id, recommendationProperties.resolveLimit(limit),
+                FilmField.parse(fields));
     }
 
     private void validateUser(User user) {
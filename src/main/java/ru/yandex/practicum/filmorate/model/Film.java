@@ -1,5 +1,9 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,7 +16,10 @@ import java.util.Set;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(Film.FIELDS_FILTER)
 public class Film {
+    public static final String FIELDS_FILTER = "filmFields";
+
     private Long id;
     @NotBlank(message = "Название не может быть пустым")
     private String name;
@@ -22,8 +29,12 @@ public class Film {
     private LocalDate releaseDate;
     @Positive(message = "Продолжительность фильма должна быть положительной")
     private int duration;
-    private Set<Long> likes = new HashSet<>();
+    @JsonDeserialize(as = IdSet.class)
+    private Set<Long> likes = new IdSet();
     private Set<Genre> genres = new HashSet<>();
     @NotNull(message = "MPA не может быть пустым")
     private Mpa mpa;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long likesCount;
 }
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.model;
+
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Fields of a film that a client can request with {@code fields=}. The storage only queries
+ * the columns and collections of the requested fields; {@link #LIKES_COUNT} is never part of
+ * the default representation.
+ */
+public enum FilmField {
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    RELEASE_DATE("releaseDate"),
+    DURATION("duration"),
+    MPA("mpa"),
+    GENRES("genres"),
+    LIKES("likes"),
+    LIKES_COUNT("likesCount");
+
+    public static final Set<FilmField> DEFAULT = Collections.unmodifiableSet(EnumSet.range(ID, LIKES));
+
+    private final String jsonName;
+
+    FilmField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * Parses a comma-separated list of JSON field names. The id is always included, because
+     * pages and related collections are keyed by it.
+     */
+    public static Set<FilmField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return DEFAULT;
+        }
+        Set<FilmField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            parsed.add(fromJsonName(name.trim()));
+        }
+        return parsed;
+    }
+
+    public static Set<String> jsonNames(Set<FilmField> fields) {
+        return fields.stream()
+                .map(FilmField::getJsonName)
+                .collect(Collectors.toSet());
+    }
+
+    private static FilmField fromJsonName(String name) {
+        for (FilmField field : values()) {
+            if (field.jsonName.equals(name)) {
+                return field;
+            }
+        }
+        throw new ValidationException("Неизвестное поле фильма: " + name);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FilmImportReport {
+    private int received;
+    private int imported;
+    private int failed;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<FilmImportResult> results = new ArrayList<>();
+}
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Friend ids and friendship statuses kept in parallel arrays: ids sorted as ints, statuses as
+ * one byte each. Written to JSON as the same object as a {@code HashMap<Long, FriendshipStatus>}.
+ */
+public class FriendMap extends AbstractMap<Long, FriendshipStatus> {
+    private static final FriendshipStatus[] STATUSES = FriendshipStatus.values();
+    private static final int[] NO_IDS = new int[0];
+    private static final byte[] NO_STATUSES = new byte[0];
+
+    private int[] ids = NO_IDS;
+    private byte[] statuses = NO_STATUSES;
+    private int size;
+
+    public FriendMap() {
+    }
+
+    public FriendMap(Map<Long, FriendshipStatus> friends) {
+        putAll(friends);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public FriendshipStatus get(Object key) {
+        int position = indexOf(key);
+        return position < 0 ? null : STATUSES[statuses[position]];
+    }
+
+    @Override
+    public FriendshipStatus put(Long friendId, FriendshipStatus status) {
+        int id = Math.toIntExact(friendId);
+        byte ordinal = (byte) status.ordinal();
+        int position = size > 0 && id > ids[size - 1] ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            FriendshipStatus previous = STATUSES[statuses[position]];
+            statuses[position] = ordinal;
+            return previous;
+        }
+        position = -position - 1;
+        if (size == ids.length) {
+            int capacity = Math.max(4, size + (size >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        System.arraycopy(statuses, position, statuses, position + 1, size - position);
+        ids[position] = id;
+        statuses[position] = ordinal;
+        size++;
+        return null;
+    }
+
+    @Override
+    public FriendshipStatus remove(Object key) {
+        int position = indexOf(key);
+        if (position < 0) {
+            return null;
+        }
+        FriendshipStatus previous = STATUSES[statuses[position]];
+        removeAt(position);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        ids = NO_IDS;
+        statuses = NO_STATUSES;
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<Long, FriendshipStatus>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Entry<Long, FriendshipStatus>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof Long id) || id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) {
+            return -1;
+        }
+        return Arrays.binarySearch(ids, 0, size, (int) (long) id);
+    }
+
+    private void removeAt(int position) {
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        System.arraycopy(statuses, position + 1, statuses, position, size - position - 1);
+        size--;
+    }
+
+    private class EntryIterator implements Iterator<Entry<Long, FriendshipStatus>> {
+        private int next;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<Long, FriendshipStatus> next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            int position = last;
+            return new SimpleEntry<>((long) ids[position], STATUSES[statuses[position]]) {
+                @Override
+                public FriendshipStatus setValue(FriendshipStatus status) {
+                    statuses[position] = (byte) status.ordinal();
+                    return super.setValue(status);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+        }
+    }
+}
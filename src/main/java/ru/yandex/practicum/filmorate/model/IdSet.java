@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of ids kept as a sorted int array. Takes about four bytes per id instead of the node,
+ * bucket and boxed {@code Long} of a {@code HashSet}, and is written to JSON as the same array.
+ * Ids are added in ascending order when loaded from the storage, so inserts are appends.
+ */
+public class IdSet extends AbstractSet<Long> {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] ids = EMPTY;
+    private int size;
+
+    public IdSet() {
+    }
+
+    public IdSet(Collection<Long> ids) {
+        addAll(ids);
+    }
+
+    /**
+     * Wraps a copy of an already sorted array without duplicates.
+     */
+    public static IdSet ofSorted(int[] sortedIds) {
+        IdSet set = new IdSet();
+        set.ids = sortedIds.clone();
+        set.size = sortedIds.length;
+        return set;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long id && indexOf(id) >= 0;
+    }
+
+    @Override
+    public boolean add(Long id) {
+        int value = Math.toIntExact(id);
+        int position = size > 0 && value > ids[size - 1] ? -size - 1 : Arrays.binarySearch(ids, 0, size, value);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = value;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Long id)) {
+            return false;
+        }
+        int position = indexOf(id);
+        if (position < 0) {
+            return false;
+        }
+        removeAt(position);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        ids = EMPTY;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<>() {
+            private int next;
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Long next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                last = next++;
+                return (long) ids[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeAt(last);
+                next = last;
+                last = -1;
+            }
+        };
+    }
+
+    private int indexOf(long id) {
+        if (id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) {
+            return -1;
+        }
+        return Arrays.binarySearch(ids, 0, size, (int) id);
+    }
+
+    private void removeAt(int position) {
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+}
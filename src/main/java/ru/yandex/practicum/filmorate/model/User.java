@@ -1,5 +1,8 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.PastOrPresent;
@@ -8,12 +11,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.Map;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(User.FIELDS_FILTER)
 public class User {
+    public static final String FIELDS_FILTER = "userFields";
+
     private Long id;
     @NotBlank(message = "Почта не может быть пустой")
     @Email(message = "Некорректный формат почты")
@@ -23,5 +29,7 @@ public class User {
     private String name;
     @PastOrPresent(message = "День рождения не может быть в будущем")
     private LocalDate birthday;
-    private HashMap<Long, FriendshipStatus> friends = new HashMap<>();
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonDeserialize(as = FriendMap.class)
+    private Map<Long, FriendshipStatus> friends = new FriendMap();
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.model;
+
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Fields of a user that a client can request with {@code fields=}. Friends are only loaded
+ * when {@link #FRIENDS} is requested and not turned off with {@code withFriends=false}; when
+ * the two disagree, {@code withFriends=false} wins and friends are left out of the response.
+ */
+public enum UserField {
+    ID("id"),
+    EMAIL("email"),
+    LOGIN("login"),
+    NAME("name"),
+    BIRTHDAY("birthday"),
+    FRIENDS("friends");
+
+    public static final Set<UserField> DEFAULT = Collections.unmodifiableSet(EnumSet.allOf(UserField.class));
+
+    private final String jsonName;
+
+    UserField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    public static Set<UserField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return DEFAULT;
+        }
+        Set<UserField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            parsed.add(fromJsonName(name.trim()));
+        }
+        return parsed;
+    }
+
+    /**
+     * Fields requested with {@code fields=}, without {@link #FRIENDS} when friends are turned off
+     * with {@code withFriends=false}.
+     */
+    public static Set<UserField> resolve(String fields, boolean withFriends) {
+        Set<UserField> parsed = parse(fields);
+        if (withFriends || !parsed.contains(FRIENDS)) {
+            return parsed;
+        }
+        Set<UserField> resolved = EnumSet.copyOf(parsed);
+        resolved.remove(FRIENDS);
+        return resolved;
+    }
+
+    public static Set<String> jsonNames(Set<UserField> fields) {
+        return fields.stream()
+                .map(UserField::getJsonName)
+                .collect(Collectors.toSet());
+    }
+
+    private static UserField fromJsonName(String name) {
+        for (UserField field : values()) {
+            if (field.jsonName.equals(name)) {
+                return field;
+            }
+        }
+        throw new ValidationException("Неизвестное поле пользователя: " + name);
+    }
+}
@@ -1,18 +1,41 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.config.ExportProperties;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmImportReport;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikeListener;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.film.LikeTargets;
+import ru.yandex.practicum.filmorate.storage.film.LikeWriteBuffer;
 import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,57 +45,246 @@ public class FilmService {
     private final UserStorage userStorage;
     private final GenreStorage genreStorage;
     private final MpaStorage mpaStorage;
+    private final FilmLeaderboard filmLeaderboard;
+    private final LikeIndex likeIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final ResourceVersions resourceVersions;
+    private final FilmCache filmCache;
+    private final List<FilmLikeListener> likeListeners;
+    private final ExportProperties exportProperties;
+    private final Validator validator;
 
     public void addLike(long filmId, long userId) {
-        getFilmById(filmId);
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
-        filmStorage.addLike(filmId, userId);
+        checkLikeTargets(filmId, userId);
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.submit(filmId, userId, true);
+        } else if (filmStorage.addLike(filmId, userId)) {
+            likeListeners.forEach(listener -> listener.likeAdded(filmId, userId));
+        }
     }
 
     public void removeLike(long filmId, long userId) {
-        getFilmById(filmId);
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
-        filmStorage.removeLike(filmId, userId);
+        checkLikeTargets(filmId, userId);
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.submit(filmId, userId, false);
+        } else if (filmStorage.removeLike(filmId, userId)) {
+            likeListeners.forEach(listener -> listener.likeRemoved(filmId, userId));
+        }
     }
 
-    public Collection<Film> getPopularFilms(int count) {
-        return filmStorage.getPopularFilms(count);
+    public Collection<Film> getPopularFilms(int count, Long genreId, Integer year, Set<FilmField> fields) {
+        if (genreId == null && year == null) {
+            Set<FilmField> stored = fields;
+            if (fields.contains(FilmField.LIKES_COUNT)) {
+                stored = EnumSet.copyOf(fields);
+                stored.remove(FilmField.LIKES_COUNT);
+            }
+            List<Film> films = filmStorage.getFilmsByIds(filmLeaderboard.getTopFilmIds(count), stored);
+            if (fields.contains(FilmField.LIKES_COUNT)) {
+                films.forEach(film -> film.setLikesCount(filmLeaderboard.getLikes(film.getId())));
+            }
+            return films;
+        }
+        if (genreId != null) {
+            genreStorage.getGenreById(genreId)
+                    .orElseThrow(() -> new NotFoundException("Жанр с id " + genreId + " не найден"));
+        }
+        return filmStorage.getPopularFilms(count, genreId, year, fields);
     }
 
-    public Collection<Film> getAllFilms() {
-        return filmStorage.getAllFilms();
+    public List<Film> searchFilms(String query, int limit, boolean boostByLikes, Set<FilmField> fields) {
+        if (query == null || FilmSearchIndex.tokenize(query).isEmpty()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
+        return filmSearchIndex.search(query, limit, boostByLikes, fields);
     }
 
-    public Film getFilmById(long id) {
-        return filmStorage.getFilmById(id)
+    public List<Film> getFilmsPage(long afterId, int limit, Set<FilmField> fields) {
+        return filmStorage.getFilmsAfter(afterId, limit, fields);
+    }
+
+    public void exportFilms(Consumer<Film> consumer) {
+        filmStorage.streamAllFilms(exportProperties.fetchSize(), consumer);
+    }
+
+    public Film getFilmById(long id, Set<FilmField> fields) {
+        Optional<Film> film = fields.equals(FilmField.DEFAULT)
+                ? filmCache.get(id, filmStorage::getFilmById)
+                : filmStorage.getFilmById(id, fields);
+        return film
                 .orElseThrow(() -> new NotFoundException("Фильм с id " + id + " не найден"));
     }
 
+    public String getFilmETag(long id) {
+        return resourceVersions.filmTag(id);
+    }
+
+    /**
+     * The popular list depends on the query as well as on the films, so the query parameters
+     * are part of the tag and different queries never share one.
+     */
+    public String getPopularFilmsETag(int count, Long genreId, Integer year) {
+        StringBuilder eTag = new StringBuilder(resourceVersions.allFilmsTag()).append("-c").append(count);
+        if (genreId != null) {
+            eTag.append("-g").append(genreId);
+        }
+        if (year != null) {
+            eTag.append("-y").append(year);
+        }
+        return eTag.toString();
+    }
+
     public Film addFilm(Film film) {
         validateFilm(film);
-        return filmStorage.addFilm(film);
+        Film added = filmStorage.addFilm(film);
+        filmLeaderboard.register(added.getId());
+        filmSearchIndex.index(added);
+        resourceVersions.filmChanged(added.getId());
+        return added;
+    }
+
+    public FilmImportReport importFilms(Iterator<Film> films, int chunkSize) {
+        long started = System.nanoTime();
+        Set<Long> mpaIds = mpaStorage.getAllMpa().stream()
+                .map(Mpa::getId)
+                .collect(Collectors.toSet());
+        Set<Long> genreIds = genreStorage.getAllGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+
+        FilmImportReport report = new FilmImportReport();
+        List<Film> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (true) {
+            Film film;
+            try {
+                if (!films.hasNext()) {
+                    break;
+                }
+                film = films.next();
+            } catch (RuntimeException e) {
+                report.getResults().add(new FilmImportResult(index, null, "Не удалось разобрать фильм: " + e.getMessage()));
+                index++;
+                break;
+            }
+            try {
+                validateImportedFilm(film, mpaIds, genreIds);
+                chunk.add(film);
+                chunkIndexes.add(index);
+            } catch (ValidationException | NotFoundException e) {
+                report.getResults().add(new FilmImportResult(index, null, e.getMessage()));
+            }
+            index++;
+            if (chunk.size() >= chunkSize) {
+                saveImportChunk(chunk, chunkIndexes, report);
+            }
+        }
+        saveImportChunk(chunk, chunkIndexes, report);
+
+        long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+        int imported = (int) report.getResults().stream()
+                .filter(result -> result.getId() != null)
+                .count();
+        report.getResults().sort(Comparator.comparingInt(FilmImportResult::getIndex));
+        report.setReceived(index);
+        report.setImported(imported);
+        report.setFailed(report.getResults().size() - imported);
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(imported * 1_000_000_000.0 / elapsedNanos);
+        return report;
     }
 
     public Film updateFilm(Film film) {
         validateFilm(film);
-        getFilmById(film.getId());
-        return filmStorage.updateFilm(film);
+        checkFilmExists(film.getId());
+        Film updated = filmStorage.updateFilm(film);
+        filmCache.invalidate(updated.getId());
+        filmSearchIndex.index(updated);
+        resourceVersions.filmChanged(updated.getId());
+        return updated;
     }
 
     public void deleteFilm(long filmId) {
-        getFilmById(filmId);
+        checkFilmExists(filmId);
         filmStorage.deleteFilm(filmId);
+        filmCache.invalidate(filmId);
+        filmLeaderboard.remove(filmId);
+        likeIndex.removeFilm(filmId);
+        filmSearchIndex.remove(filmId);
+        resourceVersions.filmChanged(filmId);
     }
 
-    private void validateFilm(Film film) {
+    private void checkFilmExists(long filmId) {
+        if (!filmStorage.existsById(filmId)) {
+            throw new NotFoundException("Фильм с id " + filmId + " не найден");
+        }
+    }
+
+    private void checkLikeTargets(long filmId, long userId) {
+        LikeTargets targets = filmStorage.findLikeTargets(filmId, userId);
+        if (!targets.filmExists()) {
+            throw new NotFoundException("Фильм с id " + filmId + " не найден");
+        }
+        if (!targets.userExists()) {
+            throw new NotFoundException("Пользователь с id " + userId + " не найден");
+        }
+    }
+
+    private void saveImportChunk(List<Film> chunk, List<Integer> chunkIndexes, FilmImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            filmStorage.addFilms(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                Film film = chunk.get(i);
+                filmLeaderboard.register(film.getId());
+                filmSearchIndex.index(film);
+                resourceVersions.filmChanged(film.getId());
+                report.getResults().add(new FilmImportResult(chunkIndexes.get(i), film.getId(), null));
+            }
+        } catch (DataAccessException e) {
+            String error = "Не удалось сохранить фильм: " + e.getMostSpecificCause().getMessage();
+            for (Integer index : chunkIndexes) {
+                report.getResults().add(new FilmImportResult(index, null, error));
+            }
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private void validateImportedFilm(Film film, Set<Long> mpaIds, Set<Long> genreIds) {
+        validator.validate(film).stream()
+                .findFirst()
+                .ifPresent(violation -> {
+                    throw new ValidationException(violation.getMessage());
+                });
+        validateReleaseDate(film);
+        if (!mpaIds.contains(film.getMpa().getId())) {
+            throw new NotFoundException("Рейтинг с id " + film.getMpa().getId() + " не найден");
+        }
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                if (!genreIds.contains(genre.getId())) {
+                    throw new NotFoundException("Жанр с id " + genre.getId() + " не найден");
+                }
+            }
+        }
+    }
+
+    private void validateReleaseDate(Film film) {
         if (film.getReleaseDate() == null) {
             throw new ValidationException("Дата релиза не может быть пустой");
         }
         if (film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
             throw new ValidationException("Дата релиза фильма не может быть раньше 28 декабря 1895 года");
         }
+    }
+
+    private void validateFilm(Film film) {
+        validateReleaseDate(film);
         if (film.getMpa() == null) {
             throw new ValidationException("MPA рейтинг не может быть пустым");
         }
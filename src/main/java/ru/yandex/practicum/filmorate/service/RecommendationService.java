@@ -0,0 +1,164 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.config.RecommendationProperties;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Recommends films liked by the users whose likes overlap most with the given user's.
+ * Neighbours are found by intersecting sorted like sets in parallel; with
+ * {@code filmorate.recommendations.precompute} they are also computed for every user in the
+ * background, and the table is used whenever it already has an entry for the user.
+ */
+@Slf4j
+@Service
+public class RecommendationService {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeIndex likeIndex;
+    private final RecommendationProperties properties;
+
+    private volatile Map<Integer, int[]> neighbourTable = Map.of();
+    private ScheduledExecutorService scheduler;
+
+    public RecommendationService(FilmStorage filmStorage, UserStorage userStorage, LikeIndex likeIndex,
+                                 RecommendationProperties properties) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.likeIndex = likeIndex;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.precompute()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-neighbours");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.refreshInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshNeighboursQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public List<Film> getRecommendations(long userId, int limit, Set<FilmField> fields) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не найден");
+        }
+        int user = SortedIntArrays.toInt(userId);
+        int[] liked = likeIndex.getLikedFilms(user);
+        if (liked.length == 0) {
+            return List.of();
+        }
+        int[] neighbours = neighbourTable.get(user);
+        if (neighbours == null) {
+            neighbours = findNeighbours(user, liked);
+        }
+
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (int neighbour : neighbours) {
+            int[] films = likeIndex.getLikedFilms(neighbour);
+            int overlap = SortedIntArrays.intersectionSize(liked, films);
+            for (int film : films) {
+                if (!SortedIntArrays.contains(liked, film)) {
+                    scores.merge(film, overlap, Integer::sum);
+                }
+            }
+        }
+        List<Long> filmIds = scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue()
+                        .reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> (long) entry.getKey())
+                .collect(Collectors.toList());
+        return filmStorage.getFilmsByIds(filmIds, fields);
+    }
+
+    public void refreshNeighbours() {
+        long started = System.nanoTime();
+        Map<Integer, int[]> table = likeIndex.getUserIds().parallelStream()
+                .collect(Collectors.toConcurrentMap(Function.identity(),
+                        user -> findNeighbours(user, likeIndex.getLikedFilms(user))));
+        neighbourTable = table;
+        log.info("Таблица соседей для рекомендаций обновлена: {} пользователей за {} мс",
+                table.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void refreshNeighboursQuietly() {
+        try {
+            refreshNeighbours();
+        } catch (RuntimeException e) {
+            log.error("Не удалось обновить таблицу соседей для рекомендаций", e);
+        }
+    }
+
+    /**
+     * Returns up to {@code neighbours} users who share the most likes with the user, best first.
+     * Only users who liked at least one of the same films are scored.
+     */
+    private int[] findNeighbours(int user, int[] liked) {
+        Set<Integer> candidateSet = new HashSet<>();
+        for (int film : liked) {
+            for (int other : likeIndex.getUsersWhoLiked(film)) {
+                candidateSet.add(other);
+            }
+        }
+        candidateSet.remove(user);
+        int[] candidates = candidateSet.stream().mapToInt(Integer::intValue).toArray();
+        int[] overlaps = new int[candidates.length];
+        IntStream.range(0, candidates.length)
+                .parallel()
+                .forEach(i -> overlaps[i] = SortedIntArrays.intersectionSize(liked,
+                        likeIndex.getLikedFilms(candidates[i])));
+
+        int limit = properties.neighbours();
+        Comparator<Integer> byOverlap = Comparator.<Integer>comparingInt(i -> overlaps[i])
+                .reversed()
+                .thenComparingInt(i -> candidates[i]);
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, byOverlap.reversed());
+        for (int i = 0; i < candidates.length; i++) {
+            top.offer(i);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        int[] neighbours = new int[top.size()];
+        for (int i = neighbours.length - 1; i >= 0; i--) {
+            neighbours[i] = candidates[top.poll()];
+        }
+        return neighbours;
+    }
+}
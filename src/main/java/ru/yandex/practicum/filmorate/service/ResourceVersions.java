@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikeListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters for cacheable resources, bumped by the services after every write that
+ * changes what the resource returns. ETags are built from these counters, so a conditional GET
+ * is answered without querying the storage.
+ *
+ * <p>All versions are drawn from one sequence, so a resource that was dropped and bumped again
+ * never reuses an old version. The epoch changes on every start, which keeps ETags handed out
+ * by a previous run from matching.
+ */
+@Component
+public class ResourceVersions implements FilmLikeListener {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Long> films = new ConcurrentHashMap<>();
+    private final Map<Long, Long> friends = new ConcurrentHashMap<>();
+    private volatile long allFilms;
+
+    public String filmTag(long filmId) {
+        return tag("film", films.getOrDefault(filmId, 0L));
+    }
+
+    public String allFilmsTag() {
+        return tag("films", allFilms);
+    }
+
+    public String friendsTag(long userId) {
+        return tag("friends", friends.getOrDefault(userId, 0L));
+    }
+
+    public void filmChanged(long filmId) {
+        films.put(filmId, sequence.incrementAndGet());
+        allFilmsChanged();
+    }
+
+    public void friendsChanged(long userId) {
+        friends.put(userId, sequence.incrementAndGet());
+    }
+
+    @Override
+    public void likeAdded(long filmId, long userId) {
+        filmChanged(filmId);
+    }
+
+    @Override
+    public void likeRemoved(long filmId, long userId) {
+        filmChanged(filmId);
+    }
+
+    private void allFilmsChanged() {
+        allFilms = sequence.incrementAndGet();
+    }
+
+    private String tag(String resource, long version) {
+        return resource + "-" + epoch + "-" + version;
+    }
+}
@@ -2,9 +2,16 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.config.metrics.FilmorateMetrics;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.model.FriendshipStatus;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.user.FriendSuggestions;
+import ru.yandex.practicum.filmorate.storage.user.UserCache;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.*;
@@ -15,6 +22,14 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserStorage userStorage;
+    private final FilmLeaderboard filmLeaderboard;
+    private final LikeIndex likeIndex;
+    private final FriendGraph friendGraph;
+    private final FriendSuggestions friendSuggestions;
+    private final FilmorateMetrics metrics;
+    private final ResourceVersions resourceVersions;
+    private final UserCache userCache;
+    private final FilmCache filmCache;
 
     public User addUser(User user) {
         if (user.getName() == null || user.getName().isBlank()) {
@@ -25,45 +40,92 @@ public class UserService {
     }
 
     public User updateUser(User user) {
-        getUserById(user.getId());
-        return userStorage.updateUser(user);
+        checkUsersExist(user.getId());
+        User updated = userStorage.updateUser(user);
+        userCache.invalidate(updated.getId());
+        friendListsContainingChanged(updated.getId());
+        return updated;
     }
 
     public void deleteUser(long userId) {
-        getUserById(userId);
+        checkUsersExist(userId);
+        List<Long> followers = friendGraph.getIncomingIds(userId);
+        int[] likedFilms = likeIndex.getLikedFilms((int) userId);
         userStorage.deleteUser(userId);
+        friendGraph.removeUser(userId);
+        friendSuggestions.clear();
+        likeIndex.removeUser(userId);
+        userCache.invalidate(userId);
+        resourceVersions.friendsChanged(userId);
+        for (long followerId : followers) {
+            userCache.invalidate(followerId);
+            resourceVersions.friendsChanged(followerId);
+            friendListsContainingChanged(followerId);
+        }
+        for (int filmId : likedFilms) {
+            filmLeaderboard.likeRemoved(filmId, userId);
+            filmCache.invalidate(filmId);
+            resourceVersions.filmChanged(filmId);
+        }
     }
 
     public User getUserById(long userId) {
-        return userStorage.getUserById(userId)
+        return getUserById(userId, true);
+    }
+
+    public User getUserById(long userId, boolean withFriends) {
+        Optional<User> user = withFriends
+                ? userCache.get(userId, userStorage::getUserById)
+                : userStorage.getUserById(userId, false);
+        return user
                 .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
     }
 
-    public Collection<User> getAllUsers() {
-        return userStorage.getAllUsers();
+    public List<User> getUsersPage(long afterId, int limit, boolean withFriends) {
+        return userStorage.getUsersAfter(afterId, limit, withFriends);
     }
 
     public void addFriend(long userId, long friendId) {
-        getUserById(userId);
-        getUserById(friendId);
+        checkUsersExist(userId, friendId);
         userStorage.addFriend(userId, friendId);
+        friendGraph.addFriend(userId, friendId);
+        friendSuggestions.friendshipChanged(userId);
+        metrics.friendAdded();
+        friendshipChanged(userId, friendId);
     }
 
     public void removeFriend(long userId, long friendId) {
-        getUserById(userId);
-        getUserById(friendId);
+        checkUsersExist(userId, friendId);
         userStorage.removeFriend(userId, friendId);
+        friendGraph.removeFriend(userId, friendId);
+        friendSuggestions.friendshipChanged(userId);
+        metrics.friendRemoved();
+        friendshipChanged(userId, friendId);
+    }
+
+    public Collection<User> getFriends(long userId, boolean withFriends) {
+        checkUsersExist(userId);
+        return userStorage.getFriends(userId, withFriends);
     }
 
-    public Collection<User> getFriends(long userId) {
-        getUserById(userId);
-        return userStorage.getFriends(userId);
+    public String getFriendsETag(long userId) {
+        return resourceVersions.friendsTag(userId);
     }
 
-    public List<User> getCommonFriends(long userId, long otherUserId) {
-        getUserById(userId);
-        getUserById(otherUserId);
-        return userStorage.getCommonFriends(userId, otherUserId);
+    public List<User> getCommonFriends(long userId, long otherUserId, boolean withFriends) {
+        checkUsersExist(userId, otherUserId);
+        return userStorage.getUsersByIds(friendGraph.getCommonFriendIds(userId, otherUserId), withFriends);
+    }
+
+    public List<User> getFriendSuggestions(long userId, int limit, boolean withFriends) {
+        checkUsersExist(userId);
+        List<Long> suggestedIds = friendSuggestions.getSuggestedIds(userId, limit);
+        Map<Long, User> usersById = userStorage.getUsersByIds(suggestedIds, withFriends).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+        return suggestedIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     public List<User> getUserFriends(long userId) {
@@ -83,4 +145,35 @@ public class UserService {
                 .map(this::getUserById)
                 .collect(Collectors.toList());
     }
+
+    private void friendshipChanged(long userId, long friendId) {
+        userCache.invalidate(userId);
+        userCache.invalidate(friendId);
+        resourceVersions.friendsChanged(userId);
+        friendListsContainingChanged(userId);
+        friendListsContainingChanged(friendId);
+    }
+
+    /**
+     * Friend lists embed the friends of every listed user, so a change of the user or of its
+     * friendships changes the lists of everyone who has this user as a friend.
+     */
+    private void friendListsContainingChanged(long userId) {
+        friendGraph.getIncomingIds(userId).forEach(resourceVersions::friendsChanged);
+    }
+
+    private void checkUsersExist(long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не найден");
+        }
+    }
+
+    private void checkUsersExist(long userId, long otherUserId) {
+        Set<Long> existing = userStorage.findExistingIds(List.of(userId, otherUserId));
+        for (long id : new long[]{userId, otherUserId}) {
+            if (!existing.contains(id)) {
+                throw new NotFoundException("Пользователь с id " + id + " не найден");
+            }
+        }
+    }
 }
\ No newline at end of file
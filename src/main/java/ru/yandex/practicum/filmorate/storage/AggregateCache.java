@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded read-through cache of hydrated aggregates keyed by id, evicting the least recently
+ * used entries once the total weight exceeds the limit. The weight of an aggregate is roughly
+ * the number of ids it holds, so one film with 100k likes counts as much as many small ones.
+ *
+ * <p>Cached aggregates are shared between callers and must not be modified. Writers call
+ * {@link #invalidate} after the change is stored; a value loaded while its own id was
+ * invalidated, or while the whole cache was cleared, is returned but not cached, so a slow load
+ * never brings back an old version. Invalidations of other ids do not affect a load.
+ *
+ * <p>Loads run inside the given load scope. The application uses it to read from the primary,
+ * because a value from a lagging replica would otherwise stay in the cache until it is evicted.
+ */
+public class AggregateCache<V> {
+    private final boolean enabled;
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final Function<Supplier<Optional<V>>, Optional<V>> loadScope;
+    private final LinkedHashMap<Long, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, PendingLoads> pendingLoads = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long weight;
+    private long clearGeneration;
+
+    public AggregateCache(boolean enabled, long maxWeight, ToLongFunction<V> weigher) {
+        this(enabled, maxWeight, weigher, Supplier::get);
+    }
+
+    public AggregateCache(boolean enabled, long maxWeight, ToLongFunction<V> weigher,
+                          Function<Supplier<Optional<V>>, Optional<V>> loadScope) {
+        this.enabled = enabled;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.loadScope = loadScope;
+    }
+
+    public Optional<V> get(long id, LongFunction<Optional<V>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        LoadTicket ticket;
+        synchronized (this) {
+            Entry<V> entry = entries.get(id);
+            if (entry != null) {
+                hits.increment();
+                return Optional.of(entry.value());
+            }
+            PendingLoads pending = pendingLoads.computeIfAbsent(id, key -> new PendingLoads());
+            pending.count++;
+            ticket = new LoadTicket(pending, pending.generation, clearGeneration);
+        }
+        misses.increment();
+        V value = null;
+        try {
+            Optional<V> loaded = loadScope.apply(() -> loader.apply(id));
+            value = loaded.orElse(null);
+            return loaded;
+        } finally {
+            finishLoad(id, ticket, value);
+        }
+    }
+
+    public synchronized void invalidate(long id) {
+        PendingLoads pending = pendingLoads.get(id);
+        if (pending != null) {
+            pending.generation++;
+        }
+        Entry<V> removed = entries.remove(id);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        clearGeneration++;
+        entries.clear();
+        weight = 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    private synchronized void finishLoad(long id, LoadTicket ticket, V value) {
+        PendingLoads pending = ticket.pending();
+        if (--pending.count == 0) {
+            pendingLoads.remove(id);
+        }
+        if (value == null || pending.generation != ticket.generation()
+                || clearGeneration != ticket.clearGeneration()) {
+            return;
+        }
+        long valueWeight = Math.max(weigher.applyAsLong(value), 1);
+        if (valueWeight > maxWeight) {
+            return;
+        }
+        Entry<V> replaced = entries.put(id, new Entry<>(value, valueWeight));
+        weight += valueWeight - (replaced == null ? 0 : replaced.weight());
+        Iterator<Map.Entry<Long, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight) {
+            weight -= eldest.next().getValue().weight();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Loads of one id that are still running, with the number of invalidations of that id
+     * seen since the first of them started.
+     */
+    private static final class PendingLoads {
+        private int count;
+        private long generation;
+    }
+
+    private record LoadTicket(PendingLoads pending, long generation, long clearGeneration) {
+    }
+
+    private record Entry<V>(V value, long weight) {
+    }
+}
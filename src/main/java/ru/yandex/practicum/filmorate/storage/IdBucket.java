@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of ids under one key of an in-memory index. The ids live in a sorted array that is
+ * handed out to readers and never modified. Writes only record the change in a small pending
+ * map, which is merged into a new array when a reader asks for the ids or when it grows past
+ * an eighth of the array. A like on a popular film therefore costs a binary search instead of
+ * a copy of every like the film already has.
+ */
+public final class IdBucket {
+    private static final int MIN_PENDING = 64;
+
+    private int[] sorted;
+    private Map<Integer, Boolean> pending;
+    private int size;
+    private int merges;
+
+    public IdBucket() {
+        this(SortedIntArrays.EMPTY);
+    }
+
+    public IdBucket(int[] sorted) {
+        this.sorted = sorted;
+        this.size = sorted.length;
+    }
+
+    public synchronized boolean add(int id) {
+        return update(id, true);
+    }
+
+    public synchronized boolean remove(int id) {
+        return update(id, false);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the ids as a sorted array, which is shared and must not be modified.
+     */
+    public synchronized int[] toSortedArray() {
+        merge();
+        return sorted;
+    }
+
+    synchronized int getMergeCount() {
+        return merges;
+    }
+
+    private boolean update(int id, boolean present) {
+        Boolean pendingState = pending == null ? null : pending.get(id);
+        boolean stored = SortedIntArrays.contains(sorted, id);
+        boolean current = pendingState != null ? pendingState : stored;
+        if (current == present) {
+            return false;
+        }
+        if (stored == present) {
+            pending.remove(id);
+        } else {
+            if (pending == null) {
+                pending = new HashMap<>();
+            }
+            pending.put(id, present);
+        }
+        size += present ? 1 : -1;
+        if (pending.size() > Math.max(MIN_PENDING, sorted.length >> 3)) {
+            merge();
+        }
+        return true;
+    }
+
+    private void merge() {
+        if (pending == null || pending.isEmpty()) {
+            pending = null;
+            return;
+        }
+        int[] changed = pending.keySet().stream()
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+        int[] merged = new int[size];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < sorted.length || j < changed.length) {
+            if (j == changed.length || (i < sorted.length && sorted[i] < changed[j])) {
+                merged[k++] = sorted[i++];
+            } else {
+                int id = changed[j++];
+                if (i < sorted.length && sorted[i] == id) {
+                    i++;
+                }
+                if (pending.get(id)) {
+                    merged[k++] = id;
+                }
+            }
+        }
+        sorted = merged;
+        pending = null;
+        merges++;
+    }
+}
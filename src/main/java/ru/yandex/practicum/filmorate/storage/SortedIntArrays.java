@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Helpers for sets of ids stored as sorted int arrays. Arrays are treated as immutable:
+ * {@link #insert} and {@link #delete} return a new array and leave the argument untouched.
+ */
+public final class SortedIntArrays {
+    public static final int[] EMPTY = new int[0];
+
+    private SortedIntArrays() {
+    }
+
+    public static int[] insert(int[] ids, int id) {
+        if (ids == null) {
+            return new int[]{id};
+        }
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        position = -position - 1;
+        int[] updated = new int[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        updated[position] = id;
+        System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+        return updated;
+    }
+
+    /**
+     * Returns the array without {@code id}, or {@code null} when nothing is left, so the
+     * result can be returned from {@code Map.compute} to drop the entry.
+     */
+    public static int[] delete(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        int[] updated = new int[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+        return updated;
+    }
+
+    public static boolean contains(int[] ids, int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public static int intersectionSize(int[] first, int[] second) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    public static List<Long> intersection(int[] first, int[] second) {
+        List<Long> common = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common.add((long) first[i]);
+                i++;
+                j++;
+            }
+        }
+        return common;
+    }
+
+    public static List<Long> toList(int[] ids) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            list.add((long) id);
+        }
+        return list;
+    }
+
+    public static int toInt(long id) {
+        return Math.toIntExact(id);
+    }
+
+    /**
+     * Growable buffer used while loading a table, turned into a sorted array at the end.
+     */
+    public static final class Builder {
+        private int[] values = new int[4];
+        private int size;
+
+        public void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        public int[] toSortedArray() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.AggregateCache;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache of films by id. Drops a film as a like listener, so likes applied by the write-behind
+ * buffer invalidate it as well.
+ */
+public class FilmCache extends AggregateCache<Film> implements FilmLikeListener {
+
+    public FilmCache(boolean enabled, long maxWeight, Function<Supplier<Optional<Film>>, Optional<Film>> loadScope) {
+        super(enabled, maxWeight, film -> 1L + film.getLikes().size() + film.getGenres().size(), loadScope);
+    }
+
+    @Override
+    public void likeAdded(long filmId, long userId) {
+        invalidate(filmId);
+    }
+
+    @Override
+    public void likeRemoved(long filmId, long userId) {
+        invalidate(filmId);
+    }
+}
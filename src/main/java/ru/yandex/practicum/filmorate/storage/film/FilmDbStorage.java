@@ -1,23 +1,50 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.mappers.FilmMapper;
 
 import java.sql.Date;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component("filmDbStorage")
 @RequiredArgsConstructor
 public class FilmDbStorage implements FilmStorage {
+    private static final int ID_CHUNK_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
     private final FilmMapper filmMapper;
 
     @Override
@@ -36,11 +63,47 @@ public class FilmDbStorage implements FilmStorage {
         }, keyHolder);
 
         film.setId(keyHolder.getKey().longValue());
-        addFilmGenres(film);
+        addFilmGenres(List.of(film));
         return film;
     }
 
     @Override
+    @Transactional
+    public List<Film> addFilms(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        String sql = "INSERT INTO films (name, description, release_date, duration, mpa_id) VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement stmt, int i) throws SQLException {
+                        Film film = films.get(i);
+                        stmt.setString(1, film.getName());
+                        stmt.setString(2, film.getDescription());
+                        stmt.setDate(3, Date.valueOf(film.getReleaseDate()));
+                        stmt.setInt(4, film.getDuration());
+                        stmt.setLong(5, film.getMpa().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            films.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+        addFilmGenres(films);
+        return films;
+    }
+
+    @Override
+    @Transactional
     public Film updateFilm(Film film) {
         String sql = "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, mpa_id = ? WHERE id = ?";
         jdbcTemplate.update(sql,
@@ -51,8 +114,7 @@ public class FilmDbStorage implements FilmStorage {
                 film.getMpa().getId(),
                 film.getId());
 
-        jdbcTemplate.update("DELETE FROM film_genres WHERE film_id = ?", film.getId());
-        addFilmGenres(film);
+        updateFilmGenres(film);
         return film;
     }
 
@@ -62,53 +124,364 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
-    public Optional<Film> getFilmById(long filmId) {
-        String sql = "SELECT f.*, m.id as mpa_id, m.name as mpa_name " +
-                "FROM films f " +
-                "LEFT JOIN mpa m ON f.mpa_id = m.id " +
-                "WHERE f.id = ?";
-        return jdbcTemplate.query(sql, filmMapper, filmId)
+    @Transactional(readOnly = true)
+    public Optional<Film> getFilmById(long filmId, Set<FilmField> fields) {
+        String sql = selectFilms(fields) + "WHERE f.id = ?";
+        return hydrate(jdbcTemplate.query(sql, filmMapper.forFields(fields), filmId), fields, false)
                 .stream()
                 .findFirst();
     }
 
     @Override
-    public Collection<Film> getAllFilms() {
-        String sql = "SELECT f.*, m.id as mpa_id, m.name as mpa_name " +
+    public boolean existsById(long filmId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM films WHERE id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, filmId));
+    }
+
+    @Override
+    public LikeTargets findLikeTargets(long filmId, long userId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM films WHERE id = ?) AS film_exists, " +
+                "EXISTS (SELECT 1 FROM users WHERE id = ?) AS user_exists";
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) ->
+                new LikeTargets(rs.getBoolean("film_exists"), rs.getBoolean("user_exists")), filmId, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Film> getAllFilms(Set<FilmField> fields) {
+        return hydrate(jdbcTemplate.query(selectFilms(fields), filmMapper.forFields(fields)), fields, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Film> getFilmsAfter(long afterId, int limit, Set<FilmField> fields) {
+        String sql = selectFilms(fields) +
+                "WHERE f.id > ? " +
+                "ORDER BY f.id " +
+                "LIMIT ?";
+        return hydrate(jdbcTemplate.query(sql, filmMapper.forFields(fields), afterId, limit), fields, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllFilms(int fetchSize, Consumer<Film> consumer) {
+        String filmsSql = "SELECT f.*, m.id as mpa_id, m.name as mpa_name " +
                 "FROM films f " +
-                "LEFT JOIN mpa m ON f.mpa_id = m.id";
-        return jdbcTemplate.query(sql, filmMapper);
+                "LEFT JOIN mpa m ON f.mpa_id = m.id " +
+                "ORDER BY f.id";
+        String genresSql = "SELECT fg.film_id, g.id AS genre_id, g.name AS genre_name " +
+                "FROM film_genres fg " +
+                "JOIN genres g ON g.id = fg.genre_id " +
+                "ORDER BY fg.film_id, g.id";
+        String likesSql = "SELECT film_id, user_id FROM likes ORDER BY film_id, user_id";
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement filmsStmt = prepareForwardOnly(connection, filmsSql, fetchSize);
+                 PreparedStatement genresStmt = prepareForwardOnly(connection, genresSql, fetchSize);
+                 PreparedStatement likesStmt = prepareForwardOnly(connection, likesSql, fetchSize);
+                 ResultSet films = filmsStmt.executeQuery();
+                 ResultSet genres = genresStmt.executeQuery();
+                 ResultSet likes = likesStmt.executeQuery()) {
+                boolean hasGenre = genres.next();
+                boolean hasLike = likes.next();
+                int rowNum = 0;
+                while (films.next()) {
+                    Film film = filmMapper.mapRow(films, rowNum++);
+                    long filmId = film.getId();
+                    while (hasGenre && genres.getLong("film_id") <= filmId) {
+                        if (genres.getLong("film_id") == filmId) {
+                            film.getGenres().add(new Genre(genres.getLong("genre_id"), genres.getString("genre_name")));
+                        }
+                        hasGenre = genres.next();
+                    }
+                    while (hasLike && likes.getLong("film_id") <= filmId) {
+                        if (likes.getLong("film_id") == filmId) {
+                            film.getLikes().add(likes.getLong("user_id"));
+                        }
+                        hasLike = likes.next();
+                    }
+                    consumer.accept(film);
+                }
+            }
+            return null;
+        });
     }
 
     @Override
-    public Collection<Film> getPopularFilms(int count) {
-        String sql = "SELECT f.*, m.id as mpa_id, m.name as mpa_name, " +
-                "COUNT(l.user_id) as likes_count " +
+    @Transactional(readOnly = true)
+    public List<Film> getFilmsByIds(List<Long> filmIds, Set<FilmField> fields) {
+        if (filmIds.isEmpty()) {
+            return List.of();
+        }
+        String sql = selectFilms(fields) + "WHERE f.id IN (:ids)";
+        RowMapper<Film> mapper = filmMapper.forFields(fields);
+        List<Film> films = new ArrayList<>();
+        queryByIds(sql, filmIds, rs -> films.add(mapper.mapRow(rs, films.size())));
+        Map<Long, Film> filmsById = hydrate(films, fields, false)
+                .stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+        return filmIds.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Film> getPopularFilms(int count, Long genreId, Integer year, Set<FilmField> fields) {
+        MapSqlParameterSource params = new MapSqlParameterSource("count", count);
+        List<String> conditions = new ArrayList<>();
+        if (genreId != null) {
+            conditions.add("f.id IN (SELECT fg.film_id FROM film_genres fg WHERE fg.genre_id = :genreId)");
+            params.addValue("genreId", genreId);
+        }
+        if (year != null) {
+            conditions.add("f.release_date >= :yearStart AND f.release_date < :nextYearStart");
+            params.addValue("yearStart", Date.valueOf(LocalDate.of(year, 1, 1)));
+            params.addValue("nextYearStart", Date.valueOf(LocalDate.of(year + 1, 1, 1)));
+        }
+        String sql = "SELECT " + filmColumns(fields) + ", COUNT(l.user_id) as likes_count " +
                 "FROM films f " +
                 "LEFT JOIN mpa m ON f.mpa_id = m.id " +
                 "LEFT JOIN likes l ON f.id = l.film_id " +
+                (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ") +
                 "GROUP BY f.id, m.id, m.name " +
-                "ORDER BY likes_count DESC " +
-                "LIMIT ?";
-        return jdbcTemplate.query(sql, filmMapper, count);
+                "ORDER BY likes_count DESC, f.id " +
+                "LIMIT :count";
+        RowMapper<Film> mapper = filmMapper.forFields(fields);
+        List<Film> films = namedJdbcTemplate.query(sql, params, (rs, rowNum) -> {
+            Film film = mapper.mapRow(rs, rowNum);
+            if (fields.contains(FilmField.LIKES_COUNT)) {
+                film.setLikesCount(rs.getLong("likes_count"));
+            }
+            return film;
+        });
+        return hydrate(films, fields, true);
+    }
+
+    private static String selectFilms(Set<FilmField> fields) {
+        return "SELECT " + filmColumns(fields) + " " +
+                "FROM films f " +
+                (fields.contains(FilmField.MPA) ? "LEFT JOIN mpa m ON f.mpa_id = m.id " : "");
+    }
+
+    private static String filmColumns(Set<FilmField> fields) {
+        StringBuilder columns = new StringBuilder("f.id");
+        if (fields.contains(FilmField.NAME)) {
+            columns.append(", f.name");
+        }
+        if (fields.contains(FilmField.DESCRIPTION)) {
+            columns.append(", f.description");
+        }
+        if (fields.contains(FilmField.RELEASE_DATE)) {
+            columns.append(", f.release_date");
+        }
+        if (fields.contains(FilmField.DURATION)) {
+            columns.append(", f.duration");
+        }
+        if (fields.contains(FilmField.MPA)) {
+            columns.append(", m.id AS mpa_id, m.name AS mpa_name");
+        }
+        return columns.toString();
+    }
+
+    /**
+     * Loads genres, likes and like counts of the films as requested. {@code likesCountsLoaded} tells
+     * whether the query that built the rows already selected the counts.
+     */
+    private List<Film> hydrate(List<Film> films, Set<FilmField> fields, boolean likesCountsLoaded) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        Map<Long, Film> filmsById = new HashMap<>();
+        for (Film film : films) {
+            filmsById.put(film.getId(), film);
+        }
+
+        if (fields.contains(FilmField.GENRES)) {
+            String genresSql = "SELECT fg.film_id, g.id AS genre_id, g.name AS genre_name " +
+                    "FROM film_genres fg " +
+                    "JOIN genres g ON g.id = fg.genre_id " +
+                    "WHERE fg.film_id IN (:ids) " +
+                    "ORDER BY fg.film_id, g.id";
+            queryByIds(genresSql, filmsById.keySet(), rs -> {
+                Film film = filmsById.get(rs.getLong("film_id"));
+                film.getGenres().add(new Genre(rs.getLong("genre_id"), rs.getString("genre_name")));
+            });
+        }
+
+        if (fields.contains(FilmField.LIKES)) {
+            String likesSql = "SELECT film_id, user_id FROM likes WHERE film_id IN (:ids) ORDER BY film_id, user_id";
+            queryByIds(likesSql, filmsById.keySet(), rs -> {
+                Film film = filmsById.get(rs.getLong("film_id"));
+                film.getLikes().add(rs.getLong("user_id"));
+            });
+        }
+
+        if (fields.contains(FilmField.LIKES_COUNT) && !likesCountsLoaded) {
+            if (fields.contains(FilmField.LIKES)) {
+                films.forEach(film -> film.setLikesCount((long) film.getLikes().size()));
+            } else {
+                films.forEach(film -> film.setLikesCount(0L));
+                String countsSql = "SELECT film_id, COUNT(*) AS likes_count FROM likes " +
+                        "WHERE film_id IN (:ids) GROUP BY film_id";
+                queryByIds(countsSql, filmsById.keySet(), rs -> {
+                    filmsById.get(rs.getLong("film_id")).setLikesCount(rs.getLong("likes_count"));
+                });
+            }
+        }
+
+        return films;
+    }
+
+    /**
+     * Runs the query once per chunk of at most {@value #ID_CHUNK_SIZE} ids, so that the IN list
+     * stays bounded however many films are read. Rows of one id always come from the same chunk.
+     */
+    private void queryByIds(String sql, Collection<Long> ids, RowCallbackHandler handler) {
+        List<Long> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = idList.subList(from, Math.min(from + ID_CHUNK_SIZE, idList.size()));
+            namedJdbcTemplate.query(sql, new MapSqlParameterSource("ids", chunk), handler);
+        }
+    }
+
+    private PreparedStatement prepareForwardOnly(Connection connection, String sql, int fetchSize) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(fetchSize);
+        return stmt;
     }
 
-    private void addFilmGenres(Film film) {
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-            for (Genre genre : film.getGenres()) {
-                jdbcTemplate.update(sql, film.getId(), genre.getId());
+    private void addFilmGenres(List<Film> films) {
+        List<Object[]> links = new ArrayList<>();
+        for (Film film : films) {
+            for (Long genreId : genreIds(film)) {
+                links.add(new Object[]{film.getId(), genreId});
             }
         }
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", links);
+        }
+    }
+
+    private void updateFilmGenres(Film film) {
+        Set<Long> requested = genreIds(film);
+        Set<Long> stored = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT genre_id FROM film_genres WHERE film_id = ?", Long.class, film.getId()));
+        if (requested.equals(stored)) {
+            return;
+        }
+
+        List<Object[]> removed = stored.stream()
+                .filter(genreId -> !requested.contains(genreId))
+                .map(genreId -> new Object[]{film.getId(), genreId})
+                .collect(Collectors.toList());
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?", removed);
+        }
+
+        List<Object[]> added = requested.stream()
+                .filter(genreId -> !stored.contains(genreId))
+                .map(genreId -> new Object[]{film.getId(), genreId})
+                .collect(Collectors.toList());
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", added);
+        }
+    }
+
+    private Set<Long> genreIds(Film film) {
+        if (film.getGenres() == null) {
+            return Set.of();
+        }
+        return film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    @Override
+    public Map<Long, Long> getLikeCounts() {
+        String sql = "SELECT f.id, COUNT(l.user_id) AS likes_count " +
+                "FROM films f " +
+                "LEFT JOIN likes l ON f.id = l.film_id " +
+                "GROUP BY f.id";
+        Map<Long, Long> likeCounts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            likeCounts.put(rs.getLong("id"), rs.getLong("likes_count"));
+        });
+        return likeCounts;
+    }
+
+    @Override
+    public Map<Long, Long> getLikeCounts(Collection<Long> filmIds) {
+        Map<Long, Long> likeCounts = new HashMap<>();
+        if (filmIds.isEmpty()) {
+            return likeCounts;
+        }
+        String sql = "SELECT f.id, COUNT(l.user_id) AS likes_count " +
+                "FROM films f " +
+                "LEFT JOIN likes l ON f.id = l.film_id " +
+                "WHERE f.id IN (:ids) " +
+                "GROUP BY f.id";
+        queryByIds(sql, filmIds, rs -> {
+            likeCounts.put(rs.getLong("id"), rs.getLong("likes_count"));
+        });
+        return likeCounts;
+    }
+
+    @Override
+    public void forEachLike(BiConsumer<Long, Long> consumer) {
+        String sql = "SELECT user_id, film_id FROM likes ORDER BY user_id, film_id";
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(rs.getLong("film_id"), rs.getLong("user_id"));
+        });
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        String sql = "INSERT INTO likes (film_id, user_id) " +
+                "SELECT f.id, u.id FROM films f, users u " +
+                "WHERE f.id = ? AND u.id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM likes l WHERE l.film_id = f.id AND l.user_id = u.id)";
+        return jdbcTemplate.update(sql, filmId, userId) > 0;
     }
 
-    public void addLike(long filmId, long userId) {
-        String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, filmId, userId);
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+        return jdbcTemplate.update(sql, filmId, userId) > 0;
+    }
+
+    @Override
+    @Transactional
+    public List<FilmLike> addLikes(List<FilmLike> likes) {
+        String sql = "INSERT INTO likes (film_id, user_id) " +
+                "SELECT f.id, u.id FROM films f, users u " +
+                "WHERE f.id = ? AND u.id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM likes l WHERE l.film_id = f.id AND l.user_id = u.id)";
+        return applyLikes(sql, likes);
     }
 
-    public void removeLike(long filmId, long userId) {
+    @Override
+    @Transactional
+    public List<FilmLike> removeLikes(List<FilmLike> likes) {
         String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, filmId, userId);
+        return applyLikes(sql, likes);
+    }
+
+    private List<FilmLike> applyLikes(String sql, List<FilmLike> likes) {
+        if (likes.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> args = likes.stream()
+                .map(like -> new Object[]{like.filmId(), like.userId()})
+                .collect(Collectors.toList());
+        int[] counts = jdbcTemplate.batchUpdate(sql, args);
+        List<FilmLike> applied = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                applied.add(likes.get(i));
+            }
+        }
+        return applied;
     }
 }
\ No newline at end of file
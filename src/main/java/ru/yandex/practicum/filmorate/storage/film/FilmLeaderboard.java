@@ -0,0 +1,194 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Like counts of all films kept in memory and ordered by popularity, so that
+ * top-N queries are answered without aggregating the likes table.
+ *
+ * <p>Moving a film in the ranking takes a remove and an add. Updates of different films run in
+ * parallel on the skip list and share the ranking lock, while a top-N read takes it exclusively,
+ * so a reader never sees a film twice or not at all. A read only walks the first entries of the
+ * ranking, so holding the lock for it is cheap even under heavy like traffic.
+ *
+ * <p>A rebuild loads the counts without blocking updates. A like that is already in the loaded
+ * counts may still reach its listener after the new counts are installed, so every film adjusted
+ * during the rebuild is read again from the storage until no more adjustments arrive.
+ */
+@Component
+public class FilmLeaderboard implements FilmLikeListener {
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::likes)
+            .reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final FilmStorage filmStorage;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final ReadWriteLock rankingLock = new ReentrantReadWriteLock();
+    private volatile State state = new State(new ConcurrentHashMap<>(), new ConcurrentSkipListSet<>(RANKING));
+    private Set<Long> adjustedDuringRebuild;
+
+    public FilmLeaderboard(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        Set<Long> adjusted = ConcurrentHashMap.newKeySet();
+        rebuildLock.writeLock().lock();
+        try {
+            adjustedDuringRebuild = adjusted;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+
+        Map<Long, Long> likeCounts = filmStorage.getLikeCounts();
+        State rebuilt = new State(new ConcurrentHashMap<>(likeCounts), new ConcurrentSkipListSet<>(RANKING));
+        likeCounts.forEach((filmId, likes) -> rebuilt.ranking().add(new Entry(filmId, likes)));
+
+        rebuildLock.writeLock().lock();
+        try {
+            state = rebuilt;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        while (true) {
+            rebuildLock.writeLock().lock();
+            try {
+                if (adjusted.isEmpty()) {
+                    adjustedDuringRebuild = null;
+                    return;
+                }
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+            List<Long> filmIds = new ArrayList<>(adjusted);
+            adjusted.removeAll(filmIds);
+            Map<Long, Long> counts = filmStorage.getLikeCounts(filmIds);
+            for (Long filmId : filmIds) {
+                reconcile(rebuilt, filmId, counts.get(filmId));
+            }
+        }
+    }
+
+    public List<Long> getTopFilmIds(int count) {
+        List<Long> filmIds = new ArrayList<>(Math.max(count, 0));
+        rankingLock.writeLock().lock();
+        try {
+            Iterator<Entry> iterator = state.ranking().iterator();
+            while (filmIds.size() < count && iterator.hasNext()) {
+                filmIds.add(iterator.next().filmId());
+            }
+        } finally {
+            rankingLock.writeLock().unlock();
+        }
+        return filmIds;
+    }
+
+    public long getLikes(long filmId) {
+        return state.likeCounts().getOrDefault(filmId, 0L);
+    }
+
+    public void register(long filmId) {
+        adjust(filmId, 0);
+    }
+
+    @Override
+    public void likeAdded(long filmId, long userId) {
+        adjust(filmId, 1);
+    }
+
+    @Override
+    public void likeRemoved(long filmId, long userId) {
+        adjust(filmId, -1);
+    }
+
+    public void remove(long filmId) {
+        rebuildLock.readLock().lock();
+        try {
+            State current = state;
+            current.likeCounts().computeIfPresent(filmId, (id, likes) -> {
+                updateRanking(current, new Entry(id, likes), null);
+                return null;
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compares the in-memory counts with the likes table and returns the ids of films
+     * whose counts diverge. An empty result means the leaderboard is consistent.
+     */
+    public List<Long> findInconsistencies() {
+        Map<Long, Long> expected = filmStorage.getLikeCounts();
+        Map<Long, Long> actual = state.likeCounts();
+        List<Long> filmIds = new ArrayList<>();
+        expected.forEach((filmId, likes) -> {
+            if (!likes.equals(actual.get(filmId))) {
+                filmIds.add(filmId);
+            }
+        });
+        actual.keySet().stream()
+                .filter(filmId -> !expected.containsKey(filmId))
+                .forEach(filmIds::add);
+        return filmIds;
+    }
+
+    private void adjust(long filmId, int delta) {
+        rebuildLock.readLock().lock();
+        try {
+            State current = state;
+            current.likeCounts().compute(filmId, (id, likes) -> {
+                long updated = likes == null ? Math.max(delta, 0) : Math.max(likes + delta, 0);
+                updateRanking(current, likes == null ? null : new Entry(id, likes), new Entry(id, updated));
+                return updated;
+            });
+            if (adjustedDuringRebuild != null) {
+                adjustedDuringRebuild.add(filmId);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void reconcile(State current, long filmId, Long likes) {
+        current.likeCounts().compute(filmId, (id, cached) -> {
+            updateRanking(current, cached == null ? null : new Entry(id, cached),
+                    likes == null ? null : new Entry(id, likes));
+            return likes;
+        });
+    }
+
+    private void updateRanking(State current, Entry removed, Entry added) {
+        rankingLock.readLock().lock();
+        try {
+            if (removed != null) {
+                current.ranking().remove(removed);
+            }
+            if (added != null) {
+                current.ranking().add(added);
+            }
+        } finally {
+            rankingLock.readLock().unlock();
+        }
+    }
+
+    private record Entry(long filmId, long likes) {
+    }
+
+    private record State(Map<Long, Long> likeCounts, NavigableSet<Entry> ranking) {
+    }
+}
@@ -0,0 +1,4 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+public record FilmLike(long filmId, long userId) {
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+/**
+ * Notified after a like has actually been written to or removed from the likes table.
+ */
+public interface FilmLikeListener {
+    void likeAdded(long filmId, long userId);
+
+    void likeRemoved(long filmId, long userId);
+}
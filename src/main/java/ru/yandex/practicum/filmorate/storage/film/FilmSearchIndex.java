@@ -0,0 +1,205 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.SearchProperties;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.IdSet;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index over film names and descriptions. Films are stored as copies together with
+ * their postings, so searches are answered without touching the database; likes are taken
+ * from {@link LikeIndex}. Terms are lower-cased with "ё" folded into "е", and a query term of
+ * three or more letters also matches longer terms starting with it at half weight, which
+ * covers most Russian word endings.
+ */
+@Slf4j
+@Component
+public class FilmSearchIndex {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final double PREFIX_FACTOR = 0.5;
+
+    private final FilmStorage filmStorage;
+    private final LikeIndex likeIndex;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final SearchProperties properties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Film> films = new HashMap<>();
+    private final Map<Long, Set<String>> termsByFilm = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    public FilmSearchIndex(FilmStorage filmStorage, LikeIndex likeIndex, GenreStorage genreStorage,
+                           MpaStorage mpaStorage, SearchProperties properties) {
+        this.filmStorage = filmStorage;
+        this.likeIndex = likeIndex;
+        this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            Collection<Film> allFilms = filmStorage.getAllFilms();
+            films.clear();
+            termsByFilm.clear();
+            postings.clear();
+            allFilms.forEach(this::add);
+            log.info("Поисковый индекс фильмов загружен: {} фильмов, {} терминов", films.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Film film) {
+        lock.writeLock().lock();
+        try {
+            delete(film.getId());
+            add(film);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long filmId) {
+        lock.writeLock().lock();
+        try {
+            delete(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best matches, copying likes from {@link LikeIndex} only when {@link FilmField#LIKES}
+     * is requested and counting them only for {@link FilmField#LIKES_COUNT}; otherwise they are left
+     * {@code null}. The other fields are held in memory anyway and are left to the response filter.
+     */
+    public List<Film> search(String query, int limit, boolean boostByLikes, Set<FilmField> fields) {
+        Set<String> queryTerms = tokenize(query).keySet();
+        lock.readLock().lock();
+        try {
+            int documents = films.size();
+            Map<Long, Double> scores = new HashMap<>();
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                Map<String, Map<Long, Integer>> matches = queryTerm.length() >= MIN_PREFIX_LENGTH
+                        ? postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)
+                        : exact(queryTerm);
+                matches.forEach((term, filmWeights) -> {
+                    double idf = Math.log(1 + (double) documents / filmWeights.size());
+                    double factor = term.equals(queryTerm) ? 1 : PREFIX_FACTOR;
+                    filmWeights.forEach((filmId, weight) ->
+                            termScores.merge(filmId, weight * idf * factor, Double::max));
+                });
+                termScores.forEach((filmId, score) -> scores.merge(filmId, score, Double::sum));
+            }
+            if (boostByLikes) {
+                scores.replaceAll((filmId, score) -> score * (1 + properties.likeBoostWeight()
+                        * Math.log1p(likeIndex.countUsersWhoLiked(SortedIntArrays.toInt(filmId)))));
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue()
+                            .reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(entry -> copy(films.get(entry.getKey()), fields))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (text == null) {
+            return counts;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        Arrays.stream(SEPARATORS.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .forEach(token -> counts.merge(token, 1, Integer::sum));
+        return counts;
+    }
+
+    private Map<String, Map<Long, Integer>> exact(String term) {
+        Map<Long, Integer> filmWeights = postings.get(term);
+        return filmWeights == null ? Map.of() : Map.of(term, filmWeights);
+    }
+
+    private void add(Film film) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(film.getName()).forEach((term, count) -> weights.merge(term, count * NAME_WEIGHT, Integer::sum));
+        tokenize(film.getDescription())
+                .forEach((term, count) -> weights.merge(term, count * DESCRIPTION_WEIGHT, Integer::sum));
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(film.getId(), weight));
+        termsByFilm.put(film.getId(), weights.keySet());
+        films.put(film.getId(), copyOf(film));
+    }
+
+    private void delete(long filmId) {
+        Set<String> terms = termsByFilm.remove(filmId);
+        if (terms != null) {
+            for (String term : terms) {
+                postings.computeIfPresent(term, (t, filmWeights) -> {
+                    filmWeights.remove(filmId);
+                    return filmWeights.isEmpty() ? null : filmWeights;
+                });
+            }
+        }
+        films.remove(filmId);
+    }
+
+    private Film copyOf(Film film) {
+        Mpa mpa = mpaStorage.getMpaById(film.getMpa().getId()).orElse(film.getMpa());
+        Set<Genre> genres = new LinkedHashSet<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream()
+                    .map(genre -> genreStorage.getGenreById(genre.getId()).orElse(genre))
+                    .sorted((first, second) -> Long.compare(first.getId(), second.getId()))
+                    .forEach(genres::add);
+        }
+        return new Film(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), Set.of(), genres, mpa, null);
+    }
+
+    private Film copy(Film film, Set<FilmField> fields) {
+        int filmId = SortedIntArrays.toInt(film.getId());
+        Set<Long> likes = fields.contains(FilmField.LIKES)
+                ? IdSet.ofSorted(likeIndex.getUsersWhoLiked(filmId))
+                : null;
+        Long likesCount = fields.contains(FilmField.LIKES_COUNT) ? (long) likeIndex.countUsersWhoLiked(filmId) : null;
+        Set<Genre> genres = film.getGenres().stream()
+                .map(genre -> new Genre(genre.getId(), genre.getName()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return new Film(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), likes, genres, new Mpa(film.getMpa().getId(), film.getMpa().getName()), likesCount);
+    }
+}
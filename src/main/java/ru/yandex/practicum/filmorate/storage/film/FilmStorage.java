@@ -1,24 +1,76 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     Film addFilm(Film film);
 
+    List<Film> addFilms(List<Film> films);
+
     Film updateFilm(Film film);
 
     void deleteFilm(long filmId);
 
-    Optional<Film> getFilmById(long filmId);
+    default Optional<Film> getFilmById(long filmId) {
+        return getFilmById(filmId, FilmField.DEFAULT);
+    }
+
+    Optional<Film> getFilmById(long filmId, Set<FilmField> fields);
+
+    boolean existsById(long filmId);
+
+    LikeTargets findLikeTargets(long filmId, long userId);
+
+    default Collection<Film> getAllFilms() {
+        return getAllFilms(FilmField.DEFAULT);
+    }
+
+    Collection<Film> getAllFilms(Set<FilmField> fields);
+
+    default List<Film> getFilmsAfter(long afterId, int limit) {
+        return getFilmsAfter(afterId, limit, FilmField.DEFAULT);
+    }
+
+    List<Film> getFilmsAfter(long afterId, int limit, Set<FilmField> fields);
+
+    void streamAllFilms(int fetchSize, Consumer<Film> consumer);
+
+    default List<Film> getFilmsByIds(List<Long> filmIds) {
+        return getFilmsByIds(filmIds, FilmField.DEFAULT);
+    }
+
+    List<Film> getFilmsByIds(List<Long> filmIds, Set<FilmField> fields);
+
+    default Collection<Film> getPopularFilms(int count) {
+        return getPopularFilms(count, null, null);
+    }
+
+    default Collection<Film> getPopularFilms(int count, Long genreId, Integer year) {
+        return getPopularFilms(count, genreId, year, FilmField.DEFAULT);
+    }
+
+    Collection<Film> getPopularFilms(int count, Long genreId, Integer year, Set<FilmField> fields);
+
+    Map<Long, Long> getLikeCounts();
+
+    Map<Long, Long> getLikeCounts(Collection<Long> filmIds);
+
+    void forEachLike(BiConsumer<Long, Long> consumer);
 
-    Collection<Film> getAllFilms();
+    boolean addLike(long filmId, long userId);
 
-    Collection<Film> getPopularFilms(int count);
+    boolean removeLike(long filmId, long userId);
 
-    void addLike(long filmId, long userId);
+    List<FilmLike> addLikes(List<FilmLike> likes);
 
-    void removeLike(long filmId, long userId);
+    List<FilmLike> removeLikes(List<FilmLike> likes);
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.IdBucket;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Likes kept in memory in both directions as sorted int arrays: films liked by each user
+ * and users who liked each film. Returned arrays are shared and must not be modified.
+ * Each key holds an {@link IdBucket}, so a like does not copy the array of a popular film.
+ */
+@Slf4j
+@Component
+public class LikeIndex implements FilmLikeListener {
+    private final FilmStorage filmStorage;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile State state = new State(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    public LikeIndex(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            Map<Integer, SortedIntArrays.Builder> filmsByUser = new HashMap<>();
+            Map<Integer, SortedIntArrays.Builder> usersByFilm = new HashMap<>();
+            filmStorage.forEachLike((filmId, userId) -> {
+                int film = SortedIntArrays.toInt(filmId);
+                int user = SortedIntArrays.toInt(userId);
+                filmsByUser.computeIfAbsent(user, id -> new SortedIntArrays.Builder()).add(film);
+                usersByFilm.computeIfAbsent(film, id -> new SortedIntArrays.Builder()).add(user);
+            });
+            State rebuilt = new State(new ConcurrentHashMap<>(filmsByUser.size()),
+                    new ConcurrentHashMap<>(usersByFilm.size()));
+            filmsByUser.forEach((id, builder) -> rebuilt.filmsByUser().put(id, new IdBucket(builder.toSortedArray())));
+            usersByFilm.forEach((id, builder) -> rebuilt.usersByFilm().put(id, new IdBucket(builder.toSortedArray())));
+            state = rebuilt;
+            log.info("Индекс лайков загружен: {} пользователей, {} фильмов",
+                    rebuilt.filmsByUser().size(), rebuilt.usersByFilm().size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public int[] getLikedFilms(int userId) {
+        return toSortedArray(state.filmsByUser().get(userId));
+    }
+
+    public int[] getUsersWhoLiked(int filmId) {
+        return toSortedArray(state.usersByFilm().get(filmId));
+    }
+
+    public int countUsersWhoLiked(int filmId) {
+        IdBucket users = state.usersByFilm().get(filmId);
+        return users == null ? 0 : users.size();
+    }
+
+    public Set<Integer> getUserIds() {
+        return Set.copyOf(state.filmsByUser().keySet());
+    }
+
+    @Override
+    public void likeAdded(long filmId, long userId) {
+        rebuildLock.readLock().lock();
+        try {
+            State current = state;
+            int film = SortedIntArrays.toInt(filmId);
+            int user = SortedIntArrays.toInt(userId);
+            current.filmsByUser().compute(user, (id, films) -> add(films, film));
+            current.usersByFilm().compute(film, (id, users) -> add(users, user));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void likeRemoved(long filmId, long userId) {
+        rebuildLock.readLock().lock();
+        try {
+            State current = state;
+            int film = SortedIntArrays.toInt(filmId);
+            int user = SortedIntArrays.toInt(userId);
+            current.filmsByUser().computeIfPresent(user, (id, films) -> remove(films, film));
+            current.usersByFilm().computeIfPresent(film, (id, users) -> remove(users, user));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        rebuildLock.readLock().lock();
+        try {
+            State current = state;
+            int film = SortedIntArrays.toInt(filmId);
+            IdBucket users = current.usersByFilm().remove(film);
+            if (users != null) {
+                for (int user : users.toSortedArray()) {
+                    current.filmsByUser().computeIfPresent(user, (id, films) -> remove(films, film));
+                }
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void removeUser(long userId) {
+        rebuildLock.readLock().lock();
+        try {
+            State current = state;
+            int user = SortedIntArrays.toInt(userId);
+            IdBucket films = current.filmsByUser().remove(user);
+            if (films != null) {
+                for (int film : films.toSortedArray()) {
+                    current.usersByFilm().computeIfPresent(film, (id, users) -> remove(users, user));
+                }
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private static int[] toSortedArray(IdBucket bucket) {
+        return bucket == null ? SortedIntArrays.EMPTY : bucket.toSortedArray();
+    }
+
+    private static IdBucket add(IdBucket bucket, int id) {
+        IdBucket updated = bucket == null ? new IdBucket() : bucket;
+        updated.add(id);
+        return updated;
+    }
+
+    private static IdBucket remove(IdBucket bucket, int id) {
+        bucket.remove(id);
+        return bucket.isEmpty() ? null : bucket;
+    }
+
+    private record State(Map<Integer, IdBucket> filmsByUser, Map<Integer, IdBucket> usersByFilm) {
+    }
+}
@@ -0,0 +1,205 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.LikeWriteBehindProperties;
+import ru.yandex.practicum.filmorate.exceptions.ServiceUnavailableException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects like and unlike requests in memory and writes them to the likes table in batches.
+ * Several requests for the same film and user are coalesced: only the latest one is written.
+ * When the buffer is full the submitting thread flushes it itself, which slows producers down
+ * to the rate the database can absorb. If no room frees up within the submit timeout, for
+ * example because the database is down, the request is rejected.
+ */
+@Slf4j
+@Component
+public class LikeWriteBuffer {
+    private final FilmStorage filmStorage;
+    private final List<FilmLikeListener> likeListeners;
+    private final LikeWriteBehindProperties properties;
+
+    private final Lock pendingLock = new ReentrantLock();
+    private final Condition spaceAvailable = pendingLock.newCondition();
+    private final Lock flushLock = new ReentrantLock();
+    private final Map<FilmLike, Boolean> pending = new LinkedHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public LikeWriteBuffer(FilmStorage filmStorage, List<FilmLikeListener> likeListeners,
+                           LikeWriteBehindProperties properties) {
+        this.filmStorage = filmStorage;
+        this.likeListeners = likeListeners;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-buffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.flushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(properties.flushInterval().toMillis() * 2 + 1000, TimeUnit.MILLISECONDS);
+        }
+        while (pendingCount() > 0) {
+            if (flush() == 0) {
+                log.error("Не удалось записать {} отложенных лайков при остановке", pendingCount());
+                return;
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public void submit(long filmId, long userId, boolean liked) {
+        FilmLike like = new FilmLike(filmId, userId);
+        boolean flushNeeded;
+        long deadline = System.nanoTime() + properties.submitTimeout().toNanos();
+        pendingLock.lock();
+        try {
+            while (isFullFor(like)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new ServiceUnavailableException("Очередь лайков переполнена, повторите запрос позже");
+                }
+                pendingLock.unlock();
+                int flushed;
+                try {
+                    flushed = flush();
+                } finally {
+                    pendingLock.lock();
+                }
+                if (flushed == 0 && isFullFor(like)) {
+                    awaitSpace(remaining);
+                }
+            }
+            pending.put(like, liked);
+            flushNeeded = pending.size() >= properties.flushSize();
+        } finally {
+            pendingLock.unlock();
+        }
+        if (flushNeeded && scheduler != null && !scheduler.isShutdown()) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    public int pendingCount() {
+        pendingLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * Writes up to one batch of pending requests and returns the number of requests taken
+     * from the buffer. Flushes are serialized so that requests for the same pair reach the
+     * database in the order they were submitted.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            Map<FilmLike, Boolean> batch = takeBatch();
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<FilmLike> added = new ArrayList<>();
+            List<FilmLike> removed = new ArrayList<>();
+            batch.forEach((like, liked) -> (liked ? added : removed).add(like));
+            try {
+                filmStorage.addLikes(added).forEach(like ->
+                        likeListeners.forEach(listener -> listener.likeAdded(like.filmId(), like.userId())));
+                filmStorage.removeLikes(removed).forEach(like ->
+                        likeListeners.forEach(listener -> listener.likeRemoved(like.filmId(), like.userId())));
+            } catch (DataAccessException e) {
+                log.error("Не удалось записать {} отложенных лайков", batch.size(), e);
+                requeue(batch);
+                return 0;
+            }
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            int flushed;
+            do {
+                flushed = flush();
+            } while (flushed >= properties.flushSize());
+        } catch (RuntimeException e) {
+            log.error("Ошибка при записи отложенных лайков", e);
+        }
+    }
+
+    private boolean isFullFor(FilmLike like) {
+        return pending.size() >= properties.capacity() && !pending.containsKey(like);
+    }
+
+    private void awaitSpace(long nanos) {
+        try {
+            spaceAvailable.awaitNanos(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Запись лайка прервана");
+        }
+    }
+
+    private Map<FilmLike, Boolean> takeBatch() {
+        pendingLock.lock();
+        try {
+            Map<FilmLike, Boolean> batch = new LinkedHashMap<>();
+            Iterator<Map.Entry<FilmLike, Boolean>> iterator = pending.entrySet().iterator();
+            while (batch.size() < properties.flushSize() && iterator.hasNext()) {
+                Map.Entry<FilmLike, Boolean> entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+            if (!batch.isEmpty()) {
+                spaceAvailable.signalAll();
+            }
+            return batch;
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private void requeue(Map<FilmLike, Boolean> batch) {
+        pendingLock.lock();
+        try {
+            batch.forEach(pending::putIfAbsent);
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+}
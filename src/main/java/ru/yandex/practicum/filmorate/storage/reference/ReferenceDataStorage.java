@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.storage.reference;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Genres and MPA ratings only change through migrations, so both tables are read once
+ * into an immutable snapshot and served from memory. Call {@link #reload()} after
+ * changing the reference data.
+ */
+@Primary
+@Component
+public class ReferenceDataStorage implements GenreStorage, MpaStorage {
+    private final GenreDbStorage genreDbStorage;
+    private final MpaDbStorage mpaDbStorage;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of(), List.of(), Map.of());
+
+    public ReferenceDataStorage(GenreDbStorage genreDbStorage, MpaDbStorage mpaDbStorage) {
+        this.genreDbStorage = genreDbStorage;
+        this.mpaDbStorage = mpaDbStorage;
+    }
+
+    @PostConstruct
+    public void reload() {
+        List<Genre> genres = List.copyOf(genreDbStorage.getAllGenres());
+        List<Mpa> mpa = List.copyOf(mpaDbStorage.getAllMpa());
+        snapshot = new Snapshot(
+                genres,
+                genres.stream().collect(Collectors.toUnmodifiableMap(Genre::getId, Function.identity())),
+                mpa,
+                mpa.stream().collect(Collectors.toUnmodifiableMap(Mpa::getId, Function.identity())));
+    }
+
+    @Override
+    public Collection<Genre> getAllGenres() {
+        return snapshot.genres().stream()
+                .map(this::copyGenre)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Genre> getGenreById(long id) {
+        return Optional.ofNullable(snapshot.genresById().get(id))
+                .map(this::copyGenre);
+    }
+
+    @Override
+    public Collection<Mpa> getAllMpa() {
+        return snapshot.mpa().stream()
+                .map(this::copyMpa)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Mpa> getMpaById(long id) {
+        return Optional.ofNullable(snapshot.mpaById().get(id))
+                .map(this::copyMpa);
+    }
+
+    private Genre copyGenre(Genre genre) {
+        return new Genre(genre.getId(), genre.getName());
+    }
+
+    private Mpa copyMpa(Mpa mpa) {
+        return new Mpa(mpa.getId(), mpa.getName());
+    }
+
+    private record Snapshot(List<Genre> genres, Map<Long, Genre> genresById, List<Mpa> mpa, Map<Long, Mpa> mpaById) {
+    }
+}
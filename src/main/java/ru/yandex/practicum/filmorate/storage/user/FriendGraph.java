@@ -0,0 +1,196 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Friend lists of all users kept in memory as sorted int arrays. Outgoing edges are the
+ * friends a user has added, incoming edges are the users who added them. Arrays are never
+ * modified in place: every change replaces the array, so readers need no locking.
+ */
+@Slf4j
+@Component
+public class FriendGraph {
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long MAP_ENTRY_BYTES = 48;
+    private static final Comparator<Map.Entry<Integer, Integer>> BY_MUTUAL_FRIENDS =
+            Map.Entry.<Integer, Integer>comparingByValue()
+                    .reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
+
+    private final UserStorage userStorage;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile State state = new State(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    public FriendGraph(UserStorage userStorage) {
+        this.userStorage = userStorage;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            Map<Integer, SortedIntArrays.Builder> outgoing = new HashMap<>();
+            Map<Integer, SortedIntArrays.Builder> incoming = new HashMap<>();
+            userStorage.forEachFriendship((userId, friendId) -> {
+                int user = SortedIntArrays.toInt(userId);
+                int friend = SortedIntArrays.toInt(friendId);
+                outgoing.computeIfAbsent(user, id -> new SortedIntArrays.Builder()).add(friend);
+                incoming.computeIfAbsent(friend, id -> new SortedIntArrays.Builder()).add(user);
+            });
+            State rebuilt = new State(new ConcurrentHashMap<>(outgoing.size()),
+                    new ConcurrentHashMap<>(incoming.size()));
+            outgoing.forEach((id, buffer) -> rebuilt.outgoing().put(id, buffer.toSortedArray()));
+            incoming.forEach((id, buffer) -> rebuilt.incoming().put(id, buffer.toSortedArray()));
+            state = rebuilt;
+            log.info("Граф друзей загружен: {} пользователей, {} связей, ~{} байт",
+                    rebuilt.outgoing().size(), getEdgeCount(), estimateMemoryBytes());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> getFriendIds(long userId) {
+        return SortedIntArrays.toList(adjacent(state.outgoing(), userId));
+    }
+
+    public List<Long> getCommonFriendIds(long userId, long otherUserId) {
+        Map<Integer, int[]> outgoing = state.outgoing();
+        return SortedIntArrays.intersection(adjacent(outgoing, userId), adjacent(outgoing, otherUserId));
+    }
+
+    public List<Long> getIncomingIds(long userId) {
+        return SortedIntArrays.toList(adjacent(state.incoming(), userId));
+    }
+
+    /**
+     * Ranks friends of the user's friends by the number of mutual friends, skipping the user
+     * and their existing friends. Only the best {@code limit} candidates are kept in a heap,
+     * so the neighbourhood is never sorted as a whole.
+     */
+    public List<Long> suggestFriends(long userId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        State current = state;
+        int id = SortedIntArrays.toInt(userId);
+        int[] friends = current.outgoing().getOrDefault(id, SortedIntArrays.EMPTY);
+        Map<Integer, Integer> mutualFriends = new HashMap<>();
+        for (int friendId : friends) {
+            for (int candidate : current.outgoing().getOrDefault(friendId, SortedIntArrays.EMPTY)) {
+                if (candidate != id && !SortedIntArrays.contains(friends, candidate)) {
+                    mutualFriends.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        PriorityQueue<Map.Entry<Integer, Integer>> top = new PriorityQueue<>(limit + 1, BY_MUTUAL_FRIENDS.reversed());
+        for (Map.Entry<Integer, Integer> entry : mutualFriends.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Long> suggestions = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            suggestions.add((long) top.poll().getKey());
+        }
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+
+    public void addFriend(long userId, long friendId) {
+        rebuildLock.readLock().lock();
+        try {
+            State current = state;
+            int user = SortedIntArrays.toInt(userId);
+            int friend = SortedIntArrays.toInt(friendId);
+            current.outgoing().compute(user, (id, friends) -> SortedIntArrays.insert(friends, friend));
+            current.incoming().compute(friend, (id, users) -> SortedIntArrays.insert(users, user));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void removeFriend(long userId, long friendId) {
+        rebuildLock.readLock().lock();
+        try {
+            State current = state;
+            int user = SortedIntArrays.toInt(userId);
+            int friend = SortedIntArrays.toInt(friendId);
+            current.outgoing().computeIfPresent(user, (id, friends) -> SortedIntArrays.delete(friends, friend));
+            current.incoming().computeIfPresent(friend, (id, users) -> SortedIntArrays.delete(users, user));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void removeUser(long userId) {
+        rebuildLock.readLock().lock();
+        try {
+            State current = state;
+            int id = SortedIntArrays.toInt(userId);
+            int[] friends = current.outgoing().remove(id);
+            if (friends != null) {
+                for (int friendId : friends) {
+                    current.incoming().computeIfPresent(friendId, (key, users) -> SortedIntArrays.delete(users, id));
+                }
+            }
+            int[] users = current.incoming().remove(id);
+            if (users != null) {
+                for (int otherId : users) {
+                    current.outgoing().computeIfPresent(otherId, (key, others) -> SortedIntArrays.delete(others, id));
+                }
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public long getEdgeCount() {
+        return state.outgoing().values().stream()
+                .mapToLong(friends -> friends.length)
+                .sum();
+    }
+
+    /**
+     * Rough heap footprint of both adjacency maps: array bodies plus the map entries
+     * and boxed keys that point to them.
+     */
+    public long estimateMemoryBytes() {
+        State current = state;
+        return estimateMemoryBytes(current.outgoing()) + estimateMemoryBytes(current.incoming());
+    }
+
+    private static int[] adjacent(Map<Integer, int[]> adjacency, long userId) {
+        return adjacency.getOrDefault(SortedIntArrays.toInt(userId), SortedIntArrays.EMPTY);
+    }
+
+    private static long estimateMemoryBytes(Map<Integer, int[]> adjacency) {
+        long bytes = 0;
+        for (int[] ids : adjacency.values()) {
+            bytes += MAP_ENTRY_BYTES + align(ARRAY_HEADER_BYTES + 4L * ids.length);
+        }
+        return bytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private record State(Map<Integer, int[]> outgoing, Map<Integer, int[]> incoming) {
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.SuggestionProperties;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches friend suggestions per user. A friendship change of user A only affects the
+ * suggestions of A and of the users who have A as a friend, so only their entries are dropped
+ * and recomputed from the friend graph on the next request.
+ */
+@Component
+public class FriendSuggestions {
+    private final FriendGraph friendGraph;
+    private final SuggestionProperties properties;
+    private final Map<Long, List<Long>> cache = new ConcurrentHashMap<>();
+
+    public FriendSuggestions(FriendGraph friendGraph, SuggestionProperties properties) {
+        this.friendGraph = friendGraph;
+        this.properties = properties;
+    }
+
+    public List<Long> getSuggestedIds(long userId, int limit) {
+        List<Long> suggestions = cache.computeIfAbsent(userId,
+                id -> List.copyOf(friendGraph.suggestFriends(id, properties.maxLimit())));
+        return suggestions.subList(0, Math.min(limit, suggestions.size()));
+    }
+
+    public void friendshipChanged(long userId) {
+        cache.remove(userId);
+        friendGraph.getIncomingIds(userId).forEach(cache::remove);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+}
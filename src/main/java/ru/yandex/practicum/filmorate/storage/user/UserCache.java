@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.AggregateCache;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache of users by id, always holding the user together with its friends.
+ */
+public class UserCache extends AggregateCache<User> {
+
+    public UserCache(boolean enabled, long maxWeight, Function<Supplier<Optional<User>>, Optional<User>> loadScope) {
+        super(enabled, maxWeight, user -> 1L + user.getFriends().size(), loadScope);
+    }
+}
@@ -2,22 +2,33 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.model.mappers.UserMapper;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 @Component("userDbStorage")
 @RequiredArgsConstructor
 public class UserDbStorage implements UserStorage {
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
     private final UserMapper userMapper;
 
     @Override
@@ -57,22 +68,67 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
-    public Optional<User> getUserById(long userId) {
+    @Transactional(readOnly = true)
+    public Optional<User> getUserById(long userId, boolean withFriends) {
         String sql = "SELECT * FROM users WHERE id = ?";
-        return jdbcTemplate.query(sql, userMapper, userId)
+        return loadFriends(jdbcTemplate.query(sql, userMapper, userId), withFriends)
                 .stream()
                 .findFirst();
     }
 
     @Override
-    public Collection<User> getAllUsers() {
+    public boolean existsById(long userId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM users WHERE id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, userId));
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        String sql = "SELECT id FROM users WHERE id IN (:ids)";
+        return new HashSet<>(namedJdbcTemplate.queryForList(sql, new MapSqlParameterSource("ids", userIds), Long.class));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<User> getAllUsers(boolean withFriends) {
         String sql = "SELECT * FROM users";
-        return jdbcTemplate.query(sql, userMapper);
+        return loadFriends(jdbcTemplate.query(sql, userMapper), withFriends);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> getUsersAfter(long afterId, int limit, boolean withFriends) {
+        String sql = "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?";
+        return loadFriends(jdbcTemplate.query(sql, userMapper, afterId, limit), withFriends);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> getUsersByIds(Collection<Long> userIds, boolean withFriends) {
+        if (userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT * FROM users WHERE id IN (:ids) ORDER BY id";
+        return loadFriends(namedJdbcTemplate.query(sql, new MapSqlParameterSource("ids", userIds), userMapper),
+                withFriends);
+    }
+
+    @Override
+    public void forEachFriendship(BiConsumer<Long, Long> consumer) {
+        String sql = "SELECT user_id, friend_id FROM friends ORDER BY user_id, friend_id";
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(rs.getLong("user_id"), rs.getLong("friend_id"));
+        });
+    }
+
+    @Override
     public void addFriend(long userId, long friendId) {
-        String sql = "INSERT INTO friends (user_id, friend_id, status) VALUES (?, ?, ?)";
-        jdbcTemplate.update(sql, userId, friendId, "UNCONFIRMED");
+        String sql = "INSERT INTO friends (user_id, friend_id, status) " +
+                "SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM friends WHERE user_id = ? AND friend_id = ?)";
+        jdbcTemplate.update(sql, userId, friendId, "UNCONFIRMED", userId, friendId);
 
         String checkSql = "SELECT COUNT(*) FROM friends WHERE user_id = ? AND friend_id = ?";
         int count = jdbcTemplate.queryForObject(checkSql, Integer.class, friendId, userId);
@@ -82,6 +138,7 @@ public class UserDbStorage implements UserStorage {
         }
     }
 
+    @Override
     public void removeFriend(long userId, long friendId) {
         String sql = "DELETE FROM friends WHERE user_id = ? AND friend_id = ?";
         int rowsAffected = jdbcTemplate.update(sql, userId, friendId);
@@ -94,18 +151,37 @@ public class UserDbStorage implements UserStorage {
         jdbcTemplate.update(updateSql, "UNCONFIRMED", friendId, userId);
     }
 
-    public Collection<User> getFriends(long userId) {
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<User> getFriends(long userId, boolean withFriends) {
         String sql = "SELECT u.* FROM users u " +
                 "JOIN friends f ON u.id = f.friend_id " +
                 "WHERE f.user_id = ?";
-        return jdbcTemplate.query(sql, userMapper, userId);
+        return loadFriends(jdbcTemplate.query(sql, userMapper, userId), withFriends);
     }
 
-    public List<User> getCommonFriends(long userId, long otherUserId) {
-        String sql = "SELECT u.* FROM users u " +
-                "JOIN friends f1 ON u.id = f1.friend_id " +
-                "JOIN friends f2 ON u.id = f2.friend_id " +
-                "WHERE f1.user_id = ? AND f2.user_id = ?";
-        return jdbcTemplate.query(sql, userMapper, userId, otherUserId);
+    private List<User> loadFriends(List<User> users, boolean withFriends) {
+        if (!withFriends) {
+            users.forEach(user -> user.setFriends(null));
+            return users;
+        }
+        if (users.isEmpty()) {
+            return users;
+        }
+        Map<Long, List<User>> usersById = new HashMap<>();
+        for (User user : users) {
+            usersById.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(user);
+        }
+
+        String sql = "SELECT user_id, friend_id, status FROM friends WHERE user_id IN (:ids) ORDER BY user_id, friend_id";
+        namedJdbcTemplate.query(sql, new MapSqlParameterSource("ids", usersById.keySet()), rs -> {
+            long friendId = rs.getLong("friend_id");
+            FriendshipStatus status = rs.getString("status").equals("CONFIRMED")
+                    ? FriendshipStatus.CONFIRMED : FriendshipStatus.UNCONFIRMED;
+            for (User user : usersById.get(rs.getLong("user_id"))) {
+                user.getFriends().put(friendId, status);
+            }
+        });
+        return users;
     }
 }
\ No newline at end of file
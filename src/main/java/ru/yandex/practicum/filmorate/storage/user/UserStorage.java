@@ -5,6 +5,8 @@ import ru.yandex.practicum.filmorate.model.User;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 public interface UserStorage {
     User addUser(User user);
@@ -13,15 +15,35 @@ public interface UserStorage {
 
     void deleteUser(long userId);
 
-    Optional<User> getUserById(long userId);
+    default Optional<User> getUserById(long userId) {
+        return getUserById(userId, true);
+    }
 
-    Collection<User> getAllUsers();
+    Optional<User> getUserById(long userId, boolean withFriends);
+
+    boolean existsById(long userId);
+
+    Set<Long> findExistingIds(Collection<Long> userIds);
+
+    default Collection<User> getAllUsers() {
+        return getAllUsers(true);
+    }
+
+    Collection<User> getAllUsers(boolean withFriends);
+
+    List<User> getUsersAfter(long afterId, int limit, boolean withFriends);
+
+    List<User> getUsersByIds(Collection<Long> userIds, boolean withFriends);
+
+    void forEachFriendship(BiConsumer<Long, Long> consumer);
 
     void addFriend(long userId, long friendId);
 
     void removeFriend(long userId, long friendId);
 
-    Collection<User> getFriends(long userId);
+    default Collection<User> getFriends(long userId) {
+        return getFriends(userId, true);
+    }
 
-    List<User> getCommonFriends(long userId, long otherUserId);
-}
\ No newline at end of file
+    Collection<User> getFriends(long userId, boolean withFriends);
+}
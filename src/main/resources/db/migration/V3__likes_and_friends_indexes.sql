@@ -0,0 +1,21 @@
+DELETE FROM likes WHERE film_id IS NULL OR user_id IS NULL;
+
+DELETE FROM likes l
+WHERE EXISTS (SELECT 1 FROM likes d
+              WHERE d.film_id = l.film_id AND d.user_id = l.user_id AND d.like_id < l.like_id);
+
+ALTER TABLE likes ALTER COLUMN film_id SET NOT NULL;
+ALTER TABLE likes ALTER COLUMN user_id SET NOT NULL;
+ALTER TABLE likes ADD CONSTRAINT uq_likes_film_user UNIQUE (film_id, user_id);
+CREATE INDEX IF NOT EXISTS idx_likes_user_film ON likes (user_id, film_id);
+
+DELETE FROM friends WHERE user_id IS NULL OR friend_id IS NULL;
+
+DELETE FROM friends f
+WHERE EXISTS (SELECT 1 FROM friends d
+              WHERE d.user_id = f.user_id AND d.friend_id = f.friend_id AND d.friendship_id < f.friendship_id);
+
+ALTER TABLE friends ALTER COLUMN user_id SET NOT NULL;
+ALTER TABLE friends ALTER COLUMN friend_id SET NOT NULL;
+ALTER TABLE friends ADD CONSTRAINT uq_friends_user_friend UNIQUE (user_id, friend_id);
+CREATE INDEX IF NOT EXISTS idx_friends_friend_user ON friends (friend_id, user_id);
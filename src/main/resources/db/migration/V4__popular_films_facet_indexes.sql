@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_film_genres_genre_film ON film_genres (genre_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_films_release_date ON films (release_date);
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS replication_heartbeat (
+    id INTEGER PRIMARY KEY,
+    beat_at TIMESTAMP NOT NULL
+);
+
+MERGE INTO replication_heartbeat (id, beat_at) KEY (id)
+    VALUES (1, CURRENT_TIMESTAMP);
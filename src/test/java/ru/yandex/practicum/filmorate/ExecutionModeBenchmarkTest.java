@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application once with platform request threads and once with the
+ * {@code virtual-threads} profile, and drives each with 2000 concurrent clients. The film cache
+ * is turned off, so every request blocks on the database as it would on a cache miss.
+ * Needs Java 21; run with {@code mvn test -Dtest=ExecutionModeBenchmarkTest -Dfilmorate.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+class ExecutionModeBenchmarkTest {
+    private static final int CLIENTS = 2000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int FILMS = 200;
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run("platform");
+        Result virtual = run("virtual-threads");
+
+        System.out.printf("platform threads: %.0f req/s, p99 %.1f ms, errors %d%n",
+                platform.throughput(), platform.p99Millis(), platform.errors());
+        System.out.printf("virtual threads:  %.0f req/s, p99 %.1f ms, errors %d%n",
+                virtual.throughput(), virtual.p99Millis(), virtual.errors());
+        assertThat(virtual.errors()).isZero();
+    }
+
+    private Result run(String profile) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .profiles(profile)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:" + profile + ";DB_CLOSE_DELAY=-1",
+                        "filmorate.cache.films.enabled=false",
+                        "logging.level.org.zalando.logbook=OFF")
+                .run()) {
+            List<Long> filmIds = seed(context);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            return load(baseUrl, filmIds);
+        }
+    }
+
+    private List<Long> seed(ConfigurableApplicationContext context) {
+        FilmService filmService = context.getBean(FilmService.class);
+        UserService userService = context.getBean(UserService.class);
+        User user = new User();
+        user.setEmail("bench@example.com");
+        user.setLogin("bench");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        long userId = userService.addUser(user).getId();
+
+        List<Long> filmIds = new ArrayList<>();
+        for (int i = 0; i < FILMS; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            film.setMpa(new Mpa(1L, null));
+            long filmId = filmService.addFilm(film).getId();
+            filmService.addLike(filmId, userId);
+            filmIds.add(filmId);
+        }
+        return filmIds;
+    }
+
+    private Result load(String baseUrl, List<Long> filmIds) throws Exception {
+        long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        int[] errors = new int[CLIENTS];
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .executor(clients)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build()) {
+            List<Future<?>> futures = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                int client = c;
+                futures.add(clients.submit(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        long filmId = filmIds.get((client * REQUESTS_PER_CLIENT + r) % filmIds.size());
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/films/" + filmId))
+                                .timeout(Duration.ofSeconds(60))
+                                .build();
+                        long requestStarted = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors[client]++;
+                            }
+                        } catch (Exception e) {
+                            errors[client]++;
+                        }
+                        latencies[client * REQUESTS_PER_CLIENT + r] = System.nanoTime() - requestStarted;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - started;
+
+            Arrays.sort(latencies);
+            double p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1_000_000.0;
+            double throughput = latencies.length / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+            return new Result(throughput, p99, Arrays.stream(errors).sum());
+        }
+    }
+
+    private record Result(double throughput, double p99Millis, int errors) {
+    }
+}
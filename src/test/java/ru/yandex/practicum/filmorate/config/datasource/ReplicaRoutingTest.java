@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.config.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application with the replica enabled. The replica pool points at the same
+ * in-memory database, and the connections taken from it are counted.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+        "filmorate.datasource.replica.enabled=true",
+        "filmorate.datasource.replica.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+        "filmorate.datasource.replica.heartbeat-interval=1h"
+})
+@Import(ReplicaRoutingTest.ReplicaConnectionCounter.class)
+@DirtiesContext
+class ReplicaRoutingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private ReplicaConnectionCounter replicaConnections;
+
+    @Test
+    void testReadOnlyStorageCallsAreRoutedToReplica() {
+        lagMonitor.check();
+        assertThat(lagMonitor.isReplicaUsable()).isTrue();
+
+        replicaConnections.reset();
+        User added = userService.addUser(newUser());
+        assertThat(replicaConnections.getCount()).isZero();
+
+        assertThat(userService.getUsersPage(0, 100, false)).extracting(User::getId).contains(added.getId());
+        assertThat(replicaConnections.getCount()).isPositive();
+    }
+
+    @Test
+    void testPinnedReadsStayOnPrimary() {
+        lagMonitor.check();
+        replicaConnections.reset();
+
+        RoutingContext.requirePrimary();
+        try {
+            userService.getUsersPage(0, 100, false);
+        } finally {
+            RoutingContext.clear();
+        }
+
+        assertThat(replicaConnections.getCount()).isZero();
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setEmail("replica@example.com");
+        user.setLogin("replica");
+        user.setName("Replica");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    @TestConfiguration
+    static class ReplicaConnectionCounter implements BeanPostProcessor {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (beanName.equals("replicaDataSource") && bean instanceof DataSource dataSource) {
+                return new CountingDataSource(dataSource);
+            }
+            return bean;
+        }
+
+        void reset() {
+            count.set(0);
+        }
+
+        int getCount() {
+            return count.get();
+        }
+
+        private class CountingDataSource extends DelegatingDataSource implements Closeable {
+            CountingDataSource(DataSource target) {
+                super(target);
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                count.incrementAndGet();
+                return super.getConnection();
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (getTargetDataSource() instanceof Closeable closeable) {
+                    closeable.close();
+                }
+            }
+        }
+    }
+}
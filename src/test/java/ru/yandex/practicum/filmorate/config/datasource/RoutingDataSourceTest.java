@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.config.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.config.ReplicaProperties;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoutingDataSourceTest {
+    private final AtomicBoolean replicaUsable = new AtomicBoolean(true);
+    private BooleanSupplier replicaCheck = replicaUsable::get;
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTemplate;
+    private TransactionTemplate readOnlyTemplate;
+
+    @BeforeEach
+    void setUp() {
+        primary = markedDatabase("routing-primary", RoutingDataSource.PRIMARY);
+        replica = markedDatabase("routing-replica", RoutingDataSource.REPLICA);
+
+        RoutingDataSource routing = new RoutingDataSource(() -> replicaCheck.getAsBoolean());
+        routing.setTargetDataSources(Map.<Object, Object>of(RoutingDataSource.PRIMARY, primary,
+                RoutingDataSource.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RoutingContext.clear();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void testReadOnlyTransactionGoesToReplica() {
+        String marker = readOnlyTemplate.execute(status -> marker());
+
+        assertThat(marker).isEqualTo(RoutingDataSource.REPLICA);
+    }
+
+    @Test
+    void testWriteTransactionGoesToPrimary() {
+        String marker = writeTemplate.execute(status -> marker());
+
+        assertThat(marker).isEqualTo(RoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() {
+        replicaUsable.set(false);
+
+        String marker = readOnlyTemplate.execute(status -> marker());
+
+        assertThat(marker).isEqualTo(RoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void testPinnedRequestReadsFromPrimary() {
+        RoutingContext.requirePrimary();
+
+        String marker = readOnlyTemplate.execute(status -> marker());
+
+        assertThat(marker).isEqualTo(RoutingDataSource.PRIMARY);
+    }
+
+    /**
+     * The two databases are separate here, so the replica only sees a new heartbeat after an
+     * explicit sync, the way a real replica sees it once replication catches up.
+     */
+    @Test
+    void testStaleHeartbeatSendsReadsToPrimaryUntilReplicaCatchesUp() {
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(primary, replica, new ReplicaProperties(true, null,
+                null, null, 1, Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(5)));
+        replicaCheck = lagMonitor::isReplicaUsable;
+        createHeartbeat(primary, Instant.now());
+        createHeartbeat(replica, Instant.now().minus(Duration.ofMinutes(1)));
+
+        lagMonitor.check();
+        String staleMarker = readOnlyTemplate.execute(status -> marker());
+
+        new JdbcTemplate(replica).update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1",
+                new JdbcTemplate(primary).queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1",
+                        Timestamp.class));
+        lagMonitor.check();
+        String syncedMarker = readOnlyTemplate.execute(status -> marker());
+
+        assertThat(staleMarker).isEqualTo(RoutingDataSource.PRIMARY);
+        assertThat(syncedMarker).isEqualTo(RoutingDataSource.REPLICA);
+    }
+
+    private String marker() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static void createHeartbeat(EmbeddedDatabase database, Instant beatAt) {
+        JdbcTemplate template = new JdbcTemplate(database);
+        template.execute("CREATE TABLE replication_heartbeat (id INTEGER PRIMARY KEY, beat_at TIMESTAMP NOT NULL)");
+        template.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", Timestamp.from(beatAt));
+    }
+
+    private static EmbeddedDatabase markedDatabase(String name, String marker) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name)
+                .build();
+        JdbcTemplate template = new JdbcTemplate(database);
+        template.execute("CREATE TABLE marker (name VARCHAR(16))");
+        template.update("INSERT INTO marker (name) VALUES (?)", marker);
+        return database;
+    }
+}
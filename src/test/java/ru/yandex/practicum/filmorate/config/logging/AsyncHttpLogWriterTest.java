@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.config.logging;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Precorrelation;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncHttpLogWriterTest {
+
+    @Test
+    void testFullQueueDropsInsteadOfBlocking() throws InterruptedException {
+        List<String> written = new CopyOnWriteArrayList<>();
+        AsyncHttpLogWriter writer = new AsyncHttpLogWriter(collecting(written), 2);
+
+        writer.write(new TestPrecorrelation("1"), "first");
+        writer.write(new TestPrecorrelation("2"), "second");
+        writer.write(new TestPrecorrelation("3"), "third");
+
+        assertThat(writer.getDroppedCount()).isEqualTo(1);
+        assertThat(writer.getQueueSize()).isEqualTo(2);
+
+        writer.start();
+        writer.stop();
+
+        assertThat(written).containsExactly("first", "second");
+        assertThat(writer.getQueueSize()).isZero();
+    }
+
+    @Test
+    void testMessagesAreWrittenInBackground() throws InterruptedException {
+        List<String> written = new CopyOnWriteArrayList<>();
+        AsyncHttpLogWriter writer = new AsyncHttpLogWriter(collecting(written), 100);
+        writer.start();
+
+        for (int i = 0; i < 50; i++) {
+            writer.write(new TestPrecorrelation(String.valueOf(i)), "request " + i);
+        }
+        writer.stop();
+
+        assertThat(written).hasSize(50);
+        assertThat(writer.getDroppedCount()).isZero();
+    }
+
+    private static HttpLogWriter collecting(List<String> written) {
+        return new HttpLogWriter() {
+            @Override
+            public void write(Precorrelation precorrelation, String request) {
+                written.add(request);
+            }
+
+            @Override
+            public void write(Correlation correlation, String response) {
+                written.add(response);
+            }
+        };
+    }
+
+    private record TestPrecorrelation(String id) implements Precorrelation {
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Instant getStart() {
+            return Instant.EPOCH;
+        }
+
+        @Override
+        public Correlation correlate() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
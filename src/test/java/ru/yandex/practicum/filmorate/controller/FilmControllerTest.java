@@ -5,11 +5,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportReport;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Collection;
 
@@ -28,6 +37,9 @@ class FilmControllerTest {
     @Autowired
     private FilmService filmService;
 
+    @Autowired
+    private UserService userService;
+
     private Film testFilm;
 
     @BeforeEach
@@ -69,7 +81,7 @@ class FilmControllerTest {
     void testGetAllFilms() {
         filmController.addFilm(testFilm);
 
-        Collection<Film> films = filmController.getAllFilms();
+        Collection<Film> films = filmController.getAllFilms(null, null, null).getBody();
 
         assertThat(films).hasSize(1);
         assertThat(films).contains(testFilm);
@@ -79,8 +91,156 @@ class FilmControllerTest {
     void testGetFilmById() {
         Film addedFilm = filmController.addFilm(testFilm);
 
-        Film retrievedFilm = filmController.getFilmById(addedFilm.getId());
+        Film retrievedFilm = filmController.getFilmById(addedFilm.getId(), null, null).getBody();
 
         assertEquals(addedFilm, retrievedFilm);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testConditionalGetAnswersNotModifiedUntilFilmChanges() {
+        Film addedFilm = filmController.addFilm(testFilm);
+        ResponseEntity<Film> first = filmController.getFilmById(addedFilm.getId(), null, null);
+        String eTag = first.getHeaders().getETag();
+        ResponseEntity<Collection<Film>> popular = filmController.getPopularFilms(10, null, null, null, null);
+        String popularETag = popular.getHeaders().getETag();
+
+        assertThat(eTag).isNotBlank();
+        assertThat(filmController.getFilmById(addedFilm.getId(), null, eTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(filmController.getPopularFilms(10, null, null, null, popularETag).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(filmController.getPopularFilms(5, null, null, null, popularETag).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(filmController.getPopularFilms(10, 1L, null, null, popularETag).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(filmController.getPopularFilms(10, null, 2000, null, popularETag).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        addedFilm.setName("Renamed");
+        filmController.updateFilm(addedFilm);
+
+        ResponseEntity<Film> changed = filmController.getFilmById(addedFilm.getId(), null, eTag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getBody().getName()).isEqualTo("Renamed");
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat(filmController.getPopularFilms(10, null, null, null, popularETag).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void testFieldsProjectionSkipsUnrequestedFields() {
+        Film addedFilm = filmController.addFilm(testFilm);
+        String fullETag = filmController.getFilmById(addedFilm.getId(), null, null).getHeaders().getETag();
+
+        ResponseEntity<Film> projected = filmController.getFilmById(addedFilm.getId(), "name,likesCount", null);
+        Film popular = filmController.getPopularFilms(10, null, null, "likesCount", null).getBody().iterator().next();
+
+        assertThat(projected.getBody().getName()).isEqualTo("Test Film");
+        assertThat(projected.getBody().getDescription()).isNull();
+        assertThat(projected.getBody().getLikes()).isNull();
+        assertThat(projected.getBody().getGenres()).isNull();
+        assertThat(projected.getBody().getLikesCount()).isZero();
+        assertThat(projected.getHeaders().getETag()).isNotEqualTo(fullETag);
+        assertThat(popular.getId()).isEqualTo(addedFilm.getId());
+        assertThat(popular.getLikesCount()).isZero();
+        assertThat(popular.getName()).isNull();
+    }
+
+    @Test
+    void testGetAllFilmsPagesWithCursor() {
+        for (int i = 0; i < 3; i++) {
+            testFilm.setId(null);
+            testFilm.setName("Film " + i);
+            filmController.addFilm(testFilm);
+        }
+
+        ResponseEntity<Collection<Film>> firstPage = filmController.getAllFilms(null, 2, null);
+        String cursor = firstPage.getHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER);
+        ResponseEntity<Collection<Film>> lastPage = filmController.getAllFilms(cursor, 2, null);
+
+        assertThat(firstPage.getBody()).extracting(Film::getName).containsExactly("Film 0", "Film 1");
+        assertThat(cursor).isNotBlank();
+        assertThat(lastPage.getBody()).extracting(Film::getName).containsExactly("Film 2");
+        assertThat(lastPage.getHeaders().containsKey(PageCursor.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    @Test
+    void testImportFilmsReportsPerItemResults() throws IOException {
+        String ndjson = String.join("\n",
+                "{\"name\": \"First\", \"description\": \"One\", \"releaseDate\": \"2001-01-01\", \"duration\": 90, " +
+                        "\"mpa\": {\"id\": 1}, \"genres\": [{\"id\": 1}]}",
+                "{\"name\": \"\", \"description\": \"No name\", \"releaseDate\": \"2002-02-02\", \"duration\": 90, " +
+                        "\"mpa\": {\"id\": 1}}",
+                "{\"name\": \"Third\", \"description\": \"Bad rating\", \"releaseDate\": \"2003-03-03\", \"duration\": 90, " +
+                        "\"mpa\": {\"id\": 99}}",
+                "{\"name\": \"Fourth\", \"description\": \"Four\", \"releaseDate\": \"2004-04-04\", \"duration\": 90, " +
+                        "\"mpa\": {\"id\": 2}}") + "\n";
+
+        FilmImportReport report = filmController.importFilms(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), 2);
+
+        assertEquals(4, report.getReceived());
+        assertEquals(2, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertThat(report.getResults()).extracting(FilmImportResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertNotNull(report.getResults().get(0).getId());
+        assertNotNull(report.getResults().get(1).getError());
+        assertNotNull(report.getResults().get(2).getError());
+        assertThat(filmController.getAllFilms(null, null, null).getBody())
+                .extracting(Film::getName)
+                .containsExactlyInAnyOrder("First", "Fourth");
+        assertThat(filmController.getFilmById(report.getResults().get(0).getId(), null, null).getBody().getGenres()).hasSize(1);
+        assertThat(filmService.getFilmETag(report.getResults().get(0).getId()))
+                .isNotEqualTo(filmService.getFilmETag(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testSearchFilmsRanksNameMatchesAndFollowsUpdates() {
+        Film trees = filmController.addFilm(newFilm("Ёлки", "Новогодняя комедия"));
+        Film space = filmController.addFilm(newFilm("Космос", "Документальный фильм"));
+        Film stars = filmController.addFilm(newFilm("Звёздные войны", "Приключения в далёком космосе"));
+
+        assertThat(filmController.searchFilms("елки", null, false, null))
+                .extracting(Film::getId)
+                .containsExactly(trees.getId());
+        assertThat(filmController.searchFilms("космос", null, false, null))
+                .extracting(Film::getId)
+                .containsExactly(space.getId(), stars.getId());
+
+        stars.setName("Звёздный космос");
+        filmController.updateFilm(stars);
+        filmController.deleteFilm(trees.getId());
+
+        assertThat(filmController.searchFilms("звездный", null, false, null))
+                .extracting(Film::getName)
+                .containsExactly("Звёздный космос");
+        assertThat(filmController.searchFilms("ёлки", null, false, null)).isEmpty();
+    }
+
+    @Test
+    void testSearchFilmsCopiesLikesOnlyWhenRequested() {
+        Film film = filmController.addFilm(newFilm("Космос", "Документальный фильм"));
+        User user = new User();
+        user.setEmail("viewer@example.com");
+        user.setLogin("viewer");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        user = userService.addUser(user);
+        filmController.addLike(film.getId(), user.getId());
+
+        Film counted = filmController.searchFilms("космос", null, false, "name,likesCount").iterator().next();
+        Film full = filmController.searchFilms("космос", null, false, null).iterator().next();
+
+        assertThat(counted.getLikes()).isNull();
+        assertThat(counted.getLikesCount()).isEqualTo(1L);
+        assertThat(full.getLikes()).containsExactly(user.getId());
+    }
+
+    private Film newFilm(String name, String description) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(description);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new Mpa(1L, null));
+        return film;
+    }
+}
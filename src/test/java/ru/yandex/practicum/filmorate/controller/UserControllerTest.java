@@ -1,18 +1,28 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.config.PaginationProperties;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.time.LocalDate;
 import java.util.Collection;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
@@ -27,6 +37,15 @@ class UserControllerTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
     private User testUser;
 
     @BeforeEach
@@ -63,18 +82,238 @@ class UserControllerTest {
     void testGetAllUsers() {
         userController.addUser(testUser);
 
-        Collection<User> users = userController.getAllUsers();
+        Collection<User> users = userController.getAllUsers(null, null, true, null).getBody();
 
         assertThat(users).hasSize(1);
         assertThat(users).contains(testUser);
     }
 
+    @Test
+    void testGetAllUsersWithoutCursorReturnsFirstPage() {
+        int defaultSize = paginationProperties.defaultSize();
+        for (int i = 0; i <= defaultSize; i++) {
+            userController.addUser(newUser("user" + i));
+        }
+
+        ResponseEntity<Collection<User>> firstPage = userController.getAllUsers(null, null, false, null);
+        String cursor = firstPage.getHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER);
+        ResponseEntity<Collection<User>> lastPage = userController.getAllUsers(cursor, null, false, null);
+
+        assertThat(firstPage.getBody()).hasSize(defaultSize);
+        assertThat(lastPage.getBody()).extracting(User::getLogin).containsExactly("user" + defaultSize);
+        assertThat(lastPage.getHeaders().containsKey(PageCursor.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
     @Test
     void testGetUserById() {
         User addedUser = userController.addUser(testUser);
 
-        User retrievedUser = userController.getUserById(addedUser.getId());
+        User retrievedUser = userController.getUserById(addedUser.getId(), null);
 
         assertEquals(addedUser, retrievedUser);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCachedUserIsInvalidatedByFriendChanges() {
+        User user = userController.addUser(testUser);
+        User friend = userController.addUser(newUser("friend"));
+        assertThat(userController.getUserById(friend.getId(), null).getFriends()).isEmpty();
+
+        userController.addFriend(user.getId(), friend.getId());
+        userController.addFriend(friend.getId(), user.getId());
+
+        assertThat(userController.getUserById(user.getId(), null).getFriends())
+                .containsEntry(friend.getId(), FriendshipStatus.CONFIRMED);
+        assertThat(userController.getUserById(friend.getId(), null).getFriends())
+                .containsEntry(user.getId(), FriendshipStatus.CONFIRMED);
+
+        userController.removeFriend(friend.getId(), user.getId());
+
+        assertThat(userController.getUserById(user.getId(), null).getFriends())
+                .containsEntry(friend.getId(), FriendshipStatus.UNCONFIRMED);
+        assertThat(userController.getUserById(friend.getId(), null).getFriends()).isEmpty();
+    }
+
+    @Test
+    void testFriendSuggestionsRankByMutualFriendsAndRefreshOnChange() {
+        User user = userController.addUser(testUser);
+        User first = userController.addUser(newUser("first"));
+        User second = userController.addUser(newUser("second"));
+        User third = userController.addUser(newUser("third"));
+        User fourth = userController.addUser(newUser("fourth"));
+        userController.addFriend(user.getId(), first.getId());
+        userController.addFriend(user.getId(), second.getId());
+        userController.addFriend(first.getId(), second.getId());
+        userController.addFriend(first.getId(), third.getId());
+        userController.addFriend(second.getId(), third.getId());
+        userController.addFriend(second.getId(), fourth.getId());
+
+        assertThat(userController.getFriendSuggestions(user.getId(), null, false, null))
+                .extracting(User::getId)
+                .containsExactly(third.getId(), fourth.getId());
+        assertThat(userController.getFriendSuggestions(user.getId(), 1, false, null))
+                .extracting(User::getId)
+                .containsExactly(third.getId());
+
+        userController.addFriend(user.getId(), third.getId());
+
+        assertThat(userController.getFriendSuggestions(user.getId(), null, false, null))
+                .extracting(User::getId)
+                .containsExactly(fourth.getId());
+    }
+
+    @Test
+    void testRecommendationsComeFromUsersWithMostOverlappingLikes() {
+        User user = userController.addUser(testUser);
+        User close = userController.addUser(newUser("close"));
+        User distant = userController.addUser(newUser("distant"));
+        Film shared = filmService.addFilm(newFilm("Shared"));
+        Film alsoShared = filmService.addFilm(newFilm("Also shared"));
+        Film fromClose = filmService.addFilm(newFilm("From close"));
+        Film fromDistant = filmService.addFilm(newFilm("From distant"));
+        filmService.addLike(shared.getId(), user.getId());
+        filmService.addLike(alsoShared.getId(), user.getId());
+        filmService.addLike(shared.getId(), close.getId());
+        filmService.addLike(alsoShared.getId(), close.getId());
+        filmService.addLike(fromClose.getId(), close.getId());
+        filmService.addLike(shared.getId(), distant.getId());
+        filmService.addLike(fromDistant.getId(), distant.getId());
+
+        assertThat(userController.getRecommendations(user.getId(), null, null))
+                .extracting(Film::getId)
+                .containsExactly(fromClose.getId(), fromDistant.getId());
+        assertThat(userController.getRecommendations(user.getId(), 1, null))
+                .extracting(Film::getId)
+                .containsExactly(fromClose.getId());
+        assertThat(userController.getRecommendations(userController.addUser(newUser("lonely")).getId(), null, null))
+                .isEmpty();
+    }
+
+    @Test
+    void testRecommendationsLoadOnlyRequestedFields() {
+        User user = userController.addUser(testUser);
+        User other = userController.addUser(newUser("other"));
+        Film shared = filmService.addFilm(newFilm("Shared"));
+        Film recommended = filmService.addFilm(newFilm("Recommended"));
+        filmService.addLike(shared.getId(), user.getId());
+        filmService.addLike(shared.getId(), other.getId());
+        filmService.addLike(recommended.getId(), other.getId());
+
+        Collection<Film> films = userController.getRecommendations(user.getId(), null, "name");
+
+        assertThat(films).extracting(Film::getName).containsExactly("Recommended");
+        assertThat(films).allSatisfy(film -> {
+            assertThat(film.getLikes()).isNull();
+            assertThat(film.getMpa()).isNull();
+        });
+    }
+
+    @Test
+    void testWithoutFriendsWinsOverRequestedFriendsField() {
+        User user = userController.addUser(testUser);
+        User other = userController.addUser(newUser("other"));
+        User common = userController.addUser(newUser("common"));
+        userController.addFriend(user.getId(), common.getId());
+        userController.addFriend(other.getId(), common.getId());
+        userController.addFriend(common.getId(), user.getId());
+
+        assertThat(userController.getCommonFriends(user.getId(), other.getId(), false, "login,friends"))
+                .singleElement()
+                .satisfies(friend -> assertThat(friend.getFriends()).isNull());
+        assertThat(userController.getCommonFriends(user.getId(), other.getId(), true, "login,friends"))
+                .singleElement()
+                .satisfies(friend -> assertThat(friend.getFriends()).containsKey(user.getId()));
+    }
+
+    @Test
+    void testFriendsETagChangesWhenListedFriendChanges() {
+        User user = userController.addUser(testUser);
+        User friend = userController.addUser(newUser("friend"));
+        userController.addFriend(user.getId(), friend.getId());
+        String eTag = userController.getFriends(user.getId(), true, null, null).getHeaders().getETag();
+
+        assertThat(userController.getFriends(user.getId(), true, null, eTag).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        friend.setName("Renamed");
+        userController.updateUser(friend);
+
+        assertThat(userController.getFriends(user.getId(), true, null, eTag).getBody())
+                .extracting(User::getName)
+                .containsExactly("Renamed");
+    }
+
+    @Test
+    void testFriendsETagDependsOnWithFriends() {
+        User user = userController.addUser(testUser);
+        User friend = userController.addUser(newUser("friend"));
+        userController.addFriend(user.getId(), friend.getId());
+        userController.addFriend(friend.getId(), user.getId());
+
+        ResponseEntity<Collection<User>> full = userController.getFriends(user.getId(), true, null, null);
+        ResponseEntity<Collection<User>> bare = userController.getFriends(user.getId(), false, null, null);
+
+        assertThat(full.getHeaders().getETag()).isNotEqualTo(bare.getHeaders().getETag());
+        assertThat(full.getBody()).allSatisfy(listed -> assertThat(listed.getFriends()).isNotNull());
+        assertThat(bare.getBody()).allSatisfy(listed -> assertThat(listed.getFriends()).isNull());
+
+        ResponseEntity<Collection<User>> bareWithFullTag =
+                userController.getFriends(user.getId(), false, null, full.getHeaders().getETag());
+        assertThat(bareWithFullTag.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bareWithFullTag.getBody()).allSatisfy(listed -> assertThat(listed.getFriends()).isNull());
+        assertThat(userController.getFriends(user.getId(), true, null, bare.getHeaders().getETag()).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void testFriendsETagOfDeletedUserNoLongerMatches() {
+        User user = userController.addUser(testUser);
+        String eTag = userController.getFriends(user.getId(), false, null, null).getHeaders().getETag();
+
+        userController.deleteUser(user.getId());
+
+        assertThatThrownBy(() -> userController.getFriends(user.getId(), false, null, eTag))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void testFriendshipsAndStorageCallsAreMetered() {
+        User user = userController.addUser(testUser);
+        User friend = userController.addUser(newUser("friend"));
+
+        userController.addFriend(user.getId(), friend.getId());
+        userController.getFriends(user.getId(), false, null, null);
+
+        assertThat(meterRegistry.get("filmorate.friendships").tag("action", "added").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("filmorate.storage")
+                .tags("storage", "user", "method", "addFriend")
+                .timer()
+                .count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("filmorate.storage")
+                .tags("storage", "user", "method", "getFriends")
+                .timer()
+                .count())
+                .isEqualTo(1);
+    }
+
+    private Film newFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(name);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new Mpa(1L, "G"));
+        return film;
+    }
+
+    private User newUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1995, 5, 5));
+        return user;
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the retained heap per like and per friendship of the boxed collections and of
+ * {@link IdSet} and {@link FriendMap}.
+ * Run with {@code mvn test -Dtest=CompactIdCollectionsMemoryBenchmarkTest -Dfilmorate.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+class CompactIdCollectionsMemoryBenchmarkTest {
+    private static final int FILMS = 20;
+    private static final int LIKES_PER_FILM = 100_000;
+    private static final int USERS = 20_000;
+    private static final int FRIENDS_PER_USER = 100;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void compareBytesPerLikeAndFriendship() {
+        long likes = (long) FILMS * LIKES_PER_FILM;
+        long friendships = (long) USERS * FRIENDS_PER_USER;
+
+        double boxedLikes = retained(() -> likes(HashSet::new)) / (double) likes;
+        double compactLikes = retained(() -> likes(IdSet::new)) / (double) likes;
+        double boxedFriends = retained(() -> friends(HashMap::new)) / (double) friendships;
+        double compactFriends = retained(() -> friends(FriendMap::new)) / (double) friendships;
+
+        System.out.printf("likes:   HashSet<Long> %.1f B, IdSet %.1f B per like%n", boxedLikes, compactLikes);
+        System.out.printf("friends: HashMap %.1f B, FriendMap %.1f B per friendship%n", boxedFriends, compactFriends);
+        assertThat(compactLikes * 4).isLessThan(boxedLikes);
+        assertThat(compactFriends * 4).isLessThan(boxedFriends);
+    }
+
+    private static List<Set<Long>> likes(Supplier<Set<Long>> factory) {
+        List<Set<Long>> films = new ArrayList<>(FILMS);
+        for (int film = 0; film < FILMS; film++) {
+            Set<Long> likes = factory.get();
+            for (int user = 0; user < LIKES_PER_FILM; user++) {
+                likes.add(1_000L + (long) user * 3 + film);
+            }
+            films.add(likes);
+        }
+        return films;
+    }
+
+    private static List<Map<Long, FriendshipStatus>> friends(Supplier<Map<Long, FriendshipStatus>> factory) {
+        List<Map<Long, FriendshipStatus>> users = new ArrayList<>(USERS);
+        for (int user = 0; user < USERS; user++) {
+            Map<Long, FriendshipStatus> friends = factory.get();
+            for (int friend = 0; friend < FRIENDS_PER_USER; friend++) {
+                friends.put(1_000L + (long) friend * 97 + user,
+                        friend % 2 == 0 ? FriendshipStatus.CONFIRMED : FriendshipStatus.UNCONFIRMED);
+            }
+            users.add(friends);
+        }
+        return users;
+    }
+
+    private long retained(Supplier<?> allocation) {
+        long before = usedHeap();
+        Object retained = allocation.get();
+        long after = usedHeap();
+        Reference.reachabilityFence(retained);
+        return after - before;
+    }
+
+    private long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
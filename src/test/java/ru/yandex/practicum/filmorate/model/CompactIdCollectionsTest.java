@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactIdCollectionsTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testIdSetBehavesLikeHashSet() {
+        IdSet ids = new IdSet();
+
+        assertThat(ids.add(7L)).isTrue();
+        assertThat(ids.add(3L)).isTrue();
+        assertThat(ids.add(11L)).isTrue();
+        assertThat(ids.add(3L)).isFalse();
+        assertThat(ids.remove(11L)).isTrue();
+        assertThat(ids.remove(11L)).isFalse();
+
+        assertThat(ids).containsExactly(3L, 7L);
+        assertThat(ids.contains(7L)).isTrue();
+        assertThat(ids.contains(7)).isFalse();
+        assertThat(ids).isEqualTo(new HashSet<>(List.of(3L, 7L)));
+        assertThat(ids.hashCode()).isEqualTo(Set.of(3L, 7L).hashCode());
+
+        Iterator<Long> iterator = ids.iterator();
+        iterator.next();
+        iterator.remove();
+        assertThat(ids).containsExactly(7L);
+    }
+
+    @Test
+    void testFriendMapBehavesLikeHashMap() {
+        FriendMap friends = new FriendMap();
+
+        assertThat(friends.put(5L, FriendshipStatus.UNCONFIRMED)).isNull();
+        assertThat(friends.put(2L, FriendshipStatus.CONFIRMED)).isNull();
+        assertThat(friends.put(5L, FriendshipStatus.CONFIRMED)).isEqualTo(FriendshipStatus.UNCONFIRMED);
+        friends.put(9L, FriendshipStatus.UNCONFIRMED);
+        assertThat(friends.remove(9L)).isEqualTo(FriendshipStatus.UNCONFIRMED);
+
+        assertThat(friends).isEqualTo(Map.of(2L, FriendshipStatus.CONFIRMED, 5L, FriendshipStatus.CONFIRMED));
+        assertThat(friends.containsKey(2L)).isTrue();
+        assertThat(friends.get(9L)).isNull();
+
+        friends.entrySet().iterator().next().setValue(FriendshipStatus.UNCONFIRMED);
+        assertThat(friends.get(2L)).isEqualTo(FriendshipStatus.UNCONFIRMED);
+    }
+
+    @Test
+    void testJsonMatchesBoxedCollections() throws JsonProcessingException {
+        Map<Long, FriendshipStatus> boxedFriends = new HashMap<>();
+        boxedFriends.put(1L, FriendshipStatus.CONFIRMED);
+        boxedFriends.put(4L, FriendshipStatus.UNCONFIRMED);
+
+        assertThat(objectMapper.writeValueAsString(new IdSet(List.of(8L, 1L, 3L))))
+                .isEqualTo(objectMapper.writeValueAsString(new HashSet<>(List.of(1L, 3L, 8L))));
+        assertThat(objectMapper.writeValueAsString(new FriendMap(boxedFriends)))
+                .isEqualTo(objectMapper.writeValueAsString(boxedFriends));
+
+        Film film = objectMapper.readValue("{\"likes\":[5,2]}", Film.class);
+        User user = objectMapper.readValue("{\"friends\":{\"3\":\"CONFIRMED\"}}", User.class);
+
+        assertThat(film.getLikes()).isInstanceOf(IdSet.class).containsExactly(2L, 5L);
+        assertThat(user.getFriends()).isInstanceOf(FriendMap.class)
+                .containsExactly(Map.entry(3L, FriendshipStatus.CONFIRMED));
+    }
+}
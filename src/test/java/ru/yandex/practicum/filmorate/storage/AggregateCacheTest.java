@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AggregateCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testHitsAreServedWithoutLoading() {
+        AggregateCache<String> cache = new AggregateCache<>(true, 100, String::length);
+
+        assertThat(cache.get(1, this::load)).contains("value-1");
+        assertThat(cache.get(1, this::load)).contains("value-1");
+        assertThat(cache.get(-1, this::load)).isEmpty();
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvictedByWeight() {
+        AggregateCache<String> cache = new AggregateCache<>(true, 20, String::length);
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        cache.get(1, this::load);
+        cache.get(3, this::load);
+
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        assertThat(cache.getWeight()).isEqualTo(14);
+        loads.set(0);
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testInvalidationDuringLoadKeepsValueOutOfCache() {
+        AggregateCache<String> cache = new AggregateCache<>(true, 100, String::length);
+
+        cache.get(1, id -> {
+            cache.invalidate(id);
+            return load(id);
+        });
+        cache.get(2, this::load);
+        cache.invalidate(2);
+
+        assertThat(cache.getSize()).isZero();
+        assertThat(cache.getWeight()).isZero();
+    }
+
+    @Test
+    void testInvalidatingOtherKeyDuringLoadStillCaches() {
+        AggregateCache<String> cache = new AggregateCache<>(true, 100, String::length);
+
+        cache.get(2, id -> {
+            cache.invalidate(1);
+            return load(id);
+        });
+        cache.get(2, this::load);
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidateAllDuringLoadKeepsValueOutOfCache() {
+        AggregateCache<String> cache = new AggregateCache<>(true, 100, String::length);
+
+        cache.get(1, id -> {
+            cache.invalidateAll();
+            return load(id);
+        });
+
+        assertThat(cache.getSize()).isZero();
+    }
+
+    @Test
+    void testLoadsRunInsideLoadScope() {
+        AtomicInteger scoped = new AtomicInteger();
+        AggregateCache<String> cache = new AggregateCache<>(true, 100, String::length, reads -> {
+            scoped.incrementAndGet();
+            return reads.get();
+        });
+
+        cache.get(1, this::load);
+        cache.get(1, this::load);
+
+        assertThat(scoped).hasValue(1);
+    }
+
+    @Test
+    void testDisabledCacheAlwaysLoads() {
+        AggregateCache<String> cache = new AggregateCache<>(false, 100, String::length);
+
+        cache.get(1, this::load);
+        cache.get(1, this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getSize()).isZero();
+    }
+
+    private Optional<String> load(long id) {
+        loads.incrementAndGet();
+        return id < 0 ? Optional.empty() : Optional.of("value-" + id);
+    }
+}
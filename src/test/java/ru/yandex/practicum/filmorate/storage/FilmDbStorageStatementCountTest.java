@@ -0,0 +1,158 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.mappers.FilmMapper;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeTargets;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@ContextConfiguration(classes = {FilmDbStorage.class, FilmMapper.class, StatementCounter.class})
+class FilmDbStorageStatementCountTest {
+    private static final int FILMS = 5;
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= FILMS; i++) {
+            jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                    "user" + i + "@example.com", "user" + i, "User " + i, LocalDate.of(1990, 1, i));
+        }
+        Collection<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users", Long.class);
+
+        for (int i = 1; i <= FILMS; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, i));
+            film.setDuration(100 + i);
+            film.setMpa(new Mpa(1L, "G"));
+            film.setGenres(Set.of(new Genre(1L, "Комедия"), new Genre(2L, "Драма")));
+            Film added = filmStorage.addFilm(film);
+            for (Long userId : userIds) {
+                filmStorage.addLike(added.getId(), userId);
+            }
+        }
+    }
+
+    @Test
+    void testGetAllFilmsIssuesFixedNumberOfStatements() {
+        statementCounter.reset();
+
+        Collection<Film> films = filmStorage.getAllFilms();
+
+        assertThat(films).hasSize(FILMS);
+        assertThat(films).allSatisfy(film -> {
+            assertThat(film.getGenres()).hasSize(2);
+            assertThat(film.getLikes()).hasSize(FILMS);
+        });
+        assertThat(statementCounter.getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void testGetAllFilmsReadsRelationsInBoundedChunks() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Film film = new Film();
+            film.setName("Bulk " + i);
+            film.setDescription("Bulk");
+            film.setReleaseDate(LocalDate.of(2001, 1, 1));
+            film.setDuration(90);
+            film.setMpa(new Mpa(1L, "G"));
+            films.add(film);
+        }
+        filmStorage.addFilms(films);
+        statementCounter.reset();
+
+        Collection<Film> loaded = filmStorage.getAllFilms();
+
+        assertThat(loaded).hasSize(FILMS + 1000);
+        assertThat(loaded).filteredOn(film -> film.getName().startsWith("Film"))
+                .allSatisfy(film -> assertThat(film.getLikes()).hasSize(FILMS));
+        assertThat(statementCounter.getCount()).isEqualTo(5);
+    }
+
+    @Test
+    void testGetPopularFilmsIssuesFixedNumberOfStatements() {
+        statementCounter.reset();
+
+        Collection<Film> films = filmStorage.getPopularFilms(FILMS);
+
+        assertThat(films).hasSize(FILMS);
+        assertThat(statementCounter.getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void testEmptyResultSkipsHydration() {
+        statementCounter.reset();
+
+        assertThat(filmStorage.getFilmById(-1)).isEmpty();
+        assertThat(statementCounter.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testLikeTargetsAreCheckedWithoutHydration() {
+        Film film = filmStorage.getAllFilms().iterator().next();
+        long userId = film.getLikes().iterator().next();
+
+        statementCounter.reset();
+        LikeTargets targets = filmStorage.findLikeTargets(film.getId(), userId);
+        LikeTargets missing = filmStorage.findLikeTargets(film.getId(), -1);
+
+        assertThat(statementCounter.getCount()).isEqualTo(2);
+        assertThat(targets).isEqualTo(new LikeTargets(true, true));
+        assertThat(missing).isEqualTo(new LikeTargets(true, false));
+        assertThat(filmStorage.existsById(-1)).isFalse();
+    }
+
+    @Test
+    void testUpdateFilmWithUnchangedGenresSkipsGenreWrites() {
+        Film film = filmStorage.getAllFilms().iterator().next();
+        film.setName("Renamed");
+
+        statementCounter.reset();
+        filmStorage.updateFilm(film);
+
+        assertThat(statementCounter.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testUpdateFilmAppliesGenreDeltaInOneBatchPerDirection() {
+        Film film = filmStorage.getAllFilms().iterator().next();
+        film.setGenres(Set.of(new Genre(2L, "Драма"), new Genre(3L, "Мультфильм"), new Genre(4L, "Триллер")));
+
+        statementCounter.reset();
+        filmStorage.updateFilm(film);
+
+        assertThat(statementCounter.getCount()).isEqualTo(4);
+        assertThat(filmStorage.getFilmById(film.getId()))
+                .hasValueSatisfying(updated -> assertThat(updated.getGenres())
+                        .extracting(Genre::getId)
+                        .containsExactlyInAnyOrder(2L, 3L, 4L));
+    }
+}
\ No newline at end of file
@@ -5,14 +5,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.model.mappers.FilmMapper;
 import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -24,6 +29,9 @@ class FilmDbStorageTest {
     @Autowired
     private FilmDbStorage filmStorage;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Film testFilm;
 
     @BeforeEach
@@ -89,4 +97,106 @@ class FilmDbStorageTest {
 
         assertThat(filmStorage.getFilmById(addedFilm.getId())).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetFilmsAfterPagesByIdInOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description");
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            film.setMpa(testFilm.getMpa());
+            ids.add(filmStorage.addFilm(film).getId());
+        }
+
+        List<Film> firstPage = filmStorage.getFilmsAfter(0, 2);
+        List<Film> secondPage = filmStorage.getFilmsAfter(firstPage.get(1).getId(), 2);
+        List<Film> lastPage = filmStorage.getFilmsAfter(secondPage.get(1).getId(), 2);
+
+        assertThat(firstPage).extracting(Film::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(secondPage).extracting(Film::getId).containsExactly(ids.get(2), ids.get(3));
+        assertThat(lastPage).extracting(Film::getId).containsExactly(ids.get(4));
+    }
+
+    @Test
+    void testStreamAllFilmsMergesGenresAndLikes() {
+        jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                "fan@example.com", "fan", "Fan", LocalDate.of(1990, 1, 1));
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE login = 'fan'", Long.class);
+
+        Film plain = filmStorage.addFilm(testFilm);
+        Film rich = new Film();
+        rich.setName("Rich Film");
+        rich.setDescription("With genres and likes");
+        rich.setReleaseDate(LocalDate.of(2010, 5, 5));
+        rich.setDuration(90);
+        rich.setMpa(testFilm.getMpa());
+        rich.setGenres(Set.of(new Genre(2L, "Драма"), new Genre(4L, "Триллер")));
+        rich = filmStorage.addFilm(rich);
+        filmStorage.addLike(rich.getId(), userId);
+
+        List<Film> streamed = new ArrayList<>();
+        filmStorage.streamAllFilms(1, streamed::add);
+
+        assertThat(streamed).extracting(Film::getId).containsExactly(plain.getId(), rich.getId());
+        assertThat(streamed).containsExactlyElementsOf(filmStorage.getFilmsByIds(List.of(plain.getId(), rich.getId())));
+        assertThat(streamed.get(1).getLikes()).containsExactly(userId);
+        assertThat(streamed.get(1).getGenres()).hasSize(2);
+    }
+
+    @Test
+    void testAddFilmsInsertsBatchWithGenres() {
+        Film other = new Film();
+        other.setName("Other Film");
+        other.setDescription("Other Description");
+        other.setReleaseDate(LocalDate.of(2005, 6, 7));
+        other.setDuration(95);
+        other.setMpa(testFilm.getMpa());
+        other.setGenres(Set.of(new Genre(3L, "Мультфильм")));
+
+        List<Film> added = filmStorage.addFilms(new ArrayList<>(List.of(testFilm, other)));
+
+        assertThat(added).allSatisfy(film -> assertThat(film.getId()).isNotNull());
+        assertThat(filmStorage.getAllFilms()).hasSize(2);
+        assertThat(filmStorage.getFilmById(other.getId()))
+                .hasValueSatisfying(film -> assertThat(film.getGenres()).containsExactly(new Genre(3L, "Мультфильм")));
+    }
+
+    @Test
+    void testGetPopularFilmsFiltersByGenreAndYear() {
+        jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                "fan@example.com", "fan", "Fan", LocalDate.of(1990, 1, 1));
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE login = 'fan'", Long.class);
+
+        Film comedy2000 = newFilm("Comedy 2000", LocalDate.of(2000, 12, 31), new Genre(1L, "Комедия"));
+        Film drama2000 = newFilm("Drama 2000", LocalDate.of(2000, 1, 1), new Genre(2L, "Драма"));
+        Film comedy2001 = newFilm("Comedy 2001", LocalDate.of(2001, 1, 1), new Genre(1L, "Комедия"));
+        filmStorage.addLike(comedy2001.getId(), userId);
+
+        assertThat(filmStorage.getPopularFilms(10, 1L, null))
+                .extracting(Film::getId)
+                .containsExactly(comedy2001.getId(), comedy2000.getId());
+        assertThat(filmStorage.getPopularFilms(10, null, 2000))
+                .extracting(Film::getId)
+                .containsExactly(comedy2000.getId(), drama2000.getId());
+        assertThat(filmStorage.getPopularFilms(10, 1L, 2000))
+                .extracting(Film::getId)
+                .containsExactly(comedy2000.getId());
+        assertThat(filmStorage.getPopularFilms(1, null, null))
+                .extracting(Film::getId)
+                .containsExactly(comedy2001.getId());
+    }
+
+    private Film newFilm(String name, LocalDate releaseDate, Genre genre) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(releaseDate);
+        film.setDuration(100);
+        film.setMpa(testFilm.getMpa());
+        film.setGenres(Set.of(genre));
+        return filmStorage.addFilm(film);
+    }
+}
@@ -0,0 +1,200 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.mappers.FilmMapper;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@ContextConfiguration(classes = {FilmDbStorage.class, FilmMapper.class, FilmLeaderboard.class})
+class FilmLeaderboardTest {
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private FilmLeaderboard filmLeaderboard;
+
+    @Autowired
+    private FilmMapper filmMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final List<Long> filmIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                    "user" + i + "@example.com", "user" + i, "User " + i, LocalDate.of(1990, 1, i));
+
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, i));
+            film.setDuration(100);
+            film.setMpa(new Mpa(1L, "G"));
+            filmIds.add(filmStorage.addFilm(film).getId());
+        }
+        userIds.addAll(jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class));
+        filmLeaderboard.rebuild();
+    }
+
+    @Test
+    void testTopFilmsFollowLikes() {
+        like(filmIds.get(2), userIds.get(0));
+        like(filmIds.get(2), userIds.get(1));
+        like(filmIds.get(1), userIds.get(0));
+
+        assertThat(filmLeaderboard.getTopFilmIds(2)).containsExactly(filmIds.get(2), filmIds.get(1));
+        assertThat(filmLeaderboard.getTopFilmIds(10)).containsExactly(filmIds.get(2), filmIds.get(1), filmIds.get(0));
+        assertThat(filmLeaderboard.findInconsistencies()).isEmpty();
+    }
+
+    @Test
+    void testRemovedLikeLowersRank() {
+        like(filmIds.get(0), userIds.get(0));
+        like(filmIds.get(1), userIds.get(1));
+        like(filmIds.get(1), userIds.get(2));
+
+        if (filmStorage.removeLike(filmIds.get(1), userIds.get(1))) {
+            filmLeaderboard.likeRemoved(filmIds.get(1), userIds.get(1));
+        }
+        if (filmStorage.removeLike(filmIds.get(1), userIds.get(2))) {
+            filmLeaderboard.likeRemoved(filmIds.get(1), userIds.get(2));
+        }
+
+        assertThat(filmLeaderboard.getTopFilmIds(1)).containsExactly(filmIds.get(0));
+        assertThat(filmLeaderboard.getLikes(filmIds.get(1))).isZero();
+        assertThat(filmLeaderboard.findInconsistencies()).isEmpty();
+    }
+
+    @Test
+    void testRebuildRepairsDivergedCounts() {
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", filmIds.get(0), userIds.get(0));
+
+        assertThat(filmLeaderboard.findInconsistencies()).containsExactly(filmIds.get(0));
+
+        filmLeaderboard.rebuild();
+
+        assertThat(filmLeaderboard.findInconsistencies()).isEmpty();
+        assertThat(filmLeaderboard.getTopFilmIds(1)).containsExactly(filmIds.get(0));
+    }
+
+    @Test
+    void testTopFilmIdsStayUniqueWhileLikesChange() throws Exception {
+        List<Long> allIds = new ArrayList<>(filmIds);
+        for (long filmId = 1_000; filmId < 1_050; filmId++) {
+            filmLeaderboard.register(filmId);
+            allIds.add(filmId);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                int offset = i;
+                writers.add(executor.submit(() -> {
+                    for (int round = 0; running.get(); round++) {
+                        long filmId = allIds.get((round * 7 + offset) % allIds.size());
+                        if (round % 2 == 0) {
+                            filmLeaderboard.likeAdded(filmId, offset);
+                        } else {
+                            filmLeaderboard.likeRemoved(filmId, offset);
+                        }
+                    }
+                }));
+            }
+            Future<?> reader = executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    List<Long> top = filmLeaderboard.getTopFilmIds(allIds.size());
+                    assertThat(new HashSet<>(top)).hasSize(allIds.size());
+                }
+            });
+            try {
+                reader.get(30, TimeUnit.SECONDS);
+            } finally {
+                running.set(false);
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLikeNotifiedDuringRebuildIsCountedOnce() throws InterruptedException {
+        long filmId = filmIds.get(0);
+        AtomicReference<FilmLeaderboard> leaderboard = new AtomicReference<>();
+        AtomicBoolean notifyWhileLoading = new AtomicBoolean();
+        ExecutorService listenerThread = Executors.newSingleThreadExecutor();
+        FilmDbStorage storage = new FilmDbStorage(jdbcTemplate, namedJdbcTemplate, filmMapper) {
+            @Override
+            public Map<Long, Long> getLikeCounts() {
+                Map<Long, Long> likeCounts = super.getLikeCounts();
+                if (notifyWhileLoading.getAndSet(false)) {
+                    CountDownLatch notified = new CountDownLatch(1);
+                    listenerThread.execute(() -> {
+                        leaderboard.get().likeAdded(filmId, userIds.get(0));
+                        notified.countDown();
+                    });
+                    try {
+                        notified.await(2, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return likeCounts;
+            }
+        };
+        leaderboard.set(new FilmLeaderboard(storage));
+        leaderboard.get().rebuild();
+        filmStorage.addLike(filmId, userIds.get(0));
+        notifyWhileLoading.set(true);
+
+        leaderboard.get().rebuild();
+        listenerThread.shutdown();
+        assertThat(listenerThread.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(leaderboard.get().getLikes(filmId)).isEqualTo(1);
+        assertThat(leaderboard.get().findInconsistencies()).isEmpty();
+    }
+
+    private void like(long filmId, long userId) {
+        if (filmStorage.addLike(filmId, userId)) {
+            filmLeaderboard.likeAdded(filmId, userId);
+        }
+    }
+}
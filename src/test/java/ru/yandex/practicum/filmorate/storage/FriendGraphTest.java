@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.test.context.ContextConfiguration;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.mappers.UserMapper;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@ContextConfiguration(classes = {UserDbStorage.class, UserMapper.class, FriendGraph.class})
+class FriendGraphTest {
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Autowired
+    private FriendGraph friendGraph;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 4; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setName("User " + i);
+            user.setBirthday(LocalDate.of(1990, 1, i));
+            userIds.add(userStorage.addUser(user).getId());
+        }
+    }
+
+    @Test
+    void testRebuildLoadsFriendsTable() {
+        addFriend(0, 2);
+        addFriend(0, 3);
+        addFriend(1, 3);
+        friendGraph.rebuild();
+
+        assertThat(friendGraph.getFriendIds(userIds.get(0))).containsExactly(userIds.get(2), userIds.get(3));
+        assertThat(friendGraph.getCommonFriendIds(userIds.get(0), userIds.get(1))).containsExactly(userIds.get(3));
+        assertThat(friendGraph.getEdgeCount()).isEqualTo(3);
+        assertThat(friendGraph.estimateMemoryBytes()).isPositive();
+    }
+
+    @Test
+    void testUpdatesKeepGraphInSyncWithTable() {
+        friendGraph.rebuild();
+        addFriend(0, 2);
+        addFriend(0, 3);
+        addFriend(1, 2);
+        addFriend(1, 3);
+        userStorage.removeFriend(userIds.get(1), userIds.get(3));
+        friendGraph.removeFriend(userIds.get(1), userIds.get(3));
+
+        assertThat(friendGraph.getCommonFriendIds(userIds.get(0), userIds.get(1))).containsExactly(userIds.get(2));
+        assertThat(friendGraph.getFriendIds(userIds.get(1)))
+                .containsExactlyElementsOf(userStorage.getFriends(userIds.get(1)).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testRemoveUserDropsIncomingAndOutgoingEdges() {
+        addFriend(0, 2);
+        addFriend(2, 1);
+        friendGraph.rebuild();
+
+        friendGraph.removeUser(userIds.get(2));
+
+        assertThat(friendGraph.getFriendIds(userIds.get(0))).isEmpty();
+        assertThat(friendGraph.getFriendIds(userIds.get(2))).isEmpty();
+        assertThat(friendGraph.getEdgeCount()).isZero();
+    }
+
+    private void addFriend(int user, int friend) {
+        userStorage.addFriend(userIds.get(user), userIds.get(friend));
+        friendGraph.addFriend(userIds.get(user), userIds.get(friend));
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdBucketTest {
+
+    @Test
+    void testBucketBehavesLikeSortedSet() {
+        IdBucket bucket = new IdBucket(new int[]{2, 5, 9});
+
+        assertThat(bucket.add(7)).isTrue();
+        assertThat(bucket.add(5)).isFalse();
+        assertThat(bucket.remove(2)).isTrue();
+        assertThat(bucket.remove(3)).isFalse();
+        assertThat(bucket.add(2)).isTrue();
+        assertThat(bucket.remove(7)).isTrue();
+
+        assertThat(bucket.size()).isEqualTo(3);
+        assertThat(bucket.toSortedArray()).containsExactly(2, 5, 9);
+    }
+
+    @Test
+    void testLikesOnHotFilmAreMergedRarely() {
+        IdBucket bucket = new IdBucket();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            int user = random.nextInt(200_000);
+            if (random.nextInt(10) == 0) {
+                assertThat(bucket.remove(user)).isEqualTo(expected.remove(user));
+            } else {
+                assertThat(bucket.add(user)).isEqualTo(expected.add(user));
+            }
+        }
+
+        assertThat(bucket.size()).isEqualTo(expected.size());
+        assertThat(bucket.getMergeCount()).isLessThan(100);
+        assertThat(bucket.toSortedArray()).containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    @Test
+    void testReturnedArrayIsNotChangedByLaterWrites() {
+        IdBucket bucket = new IdBucket(new int[]{1, 2, 3});
+        int[] snapshot = bucket.toSortedArray();
+
+        bucket.remove(2);
+        bucket.add(4);
+
+        assertThat(snapshot).containsExactly(1, 2, 3);
+        assertThat(bucket.toSortedArray()).containsExactly(1, 3, 4);
+    }
+}
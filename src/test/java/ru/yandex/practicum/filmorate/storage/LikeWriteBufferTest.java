@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import ru.yandex.practicum.filmorate.config.LikeWriteBehindProperties;
+import ru.yandex.practicum.filmorate.exceptions.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.mappers.FilmMapper;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.FilmLike;
+import ru.yandex.practicum.filmorate.storage.film.LikeWriteBuffer;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@ContextConfiguration(classes = {FilmDbStorage.class, FilmMapper.class, FilmLeaderboard.class})
+class LikeWriteBufferTest {
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private FilmLeaderboard filmLeaderboard;
+
+    @Autowired
+    private FilmMapper filmMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final List<Long> filmIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private LikeWriteBuffer likeWriteBuffer;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 2; i++) {
+            jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                    "user" + i + "@example.com", "user" + i, "User " + i, LocalDate.of(1990, 1, i));
+
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, i));
+            film.setDuration(100);
+            film.setMpa(new Mpa(1L, "G"));
+            filmIds.add(filmStorage.addFilm(film).getId());
+        }
+        userIds.addAll(jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class));
+        filmLeaderboard.rebuild();
+
+        LikeWriteBehindProperties properties = new LikeWriteBehindProperties(true, 3, 100, Duration.ofHours(1),
+                Duration.ofSeconds(1));
+        likeWriteBuffer = new LikeWriteBuffer(filmStorage, List.of(filmLeaderboard), properties);
+    }
+
+    @Test
+    void testRepeatedRequestsForSamePairAreCoalesced() {
+        likeWriteBuffer.submit(filmIds.get(0), userIds.get(0), true);
+        likeWriteBuffer.submit(filmIds.get(0), userIds.get(0), false);
+        likeWriteBuffer.submit(filmIds.get(0), userIds.get(0), true);
+
+        assertThat(likeWriteBuffer.pendingCount()).isEqualTo(1);
+        assertThat(likeWriteBuffer.flush()).isEqualTo(1);
+        assertThat(countLikes()).isEqualTo(1);
+        assertThat(filmLeaderboard.getLikes(filmIds.get(0))).isEqualTo(1);
+    }
+
+    @Test
+    void testUnlikeOfStoredLikeIsWrittenOnFlush() {
+        filmStorage.addLike(filmIds.get(1), userIds.get(1));
+        filmLeaderboard.rebuild();
+
+        likeWriteBuffer.submit(filmIds.get(1), userIds.get(1), true);
+        likeWriteBuffer.submit(filmIds.get(1), userIds.get(1), false);
+        likeWriteBuffer.flush();
+
+        assertThat(countLikes()).isZero();
+        assertThat(filmLeaderboard.getLikes(filmIds.get(1))).isZero();
+        assertThat(filmLeaderboard.findInconsistencies()).isEmpty();
+    }
+
+    @Test
+    void testFullBufferIsFlushedBySubmittingThread() {
+        likeWriteBuffer.submit(filmIds.get(0), userIds.get(0), true);
+        likeWriteBuffer.submit(filmIds.get(0), userIds.get(1), true);
+        likeWriteBuffer.submit(filmIds.get(1), userIds.get(0), true);
+        likeWriteBuffer.submit(filmIds.get(1), userIds.get(1), true);
+
+        assertThat(likeWriteBuffer.pendingCount()).isEqualTo(1);
+        assertThat(countLikes()).isEqualTo(3);
+    }
+
+    @Test
+    void testStopDrainsPendingRequests() throws InterruptedException {
+        likeWriteBuffer.submit(filmIds.get(0), userIds.get(0), true);
+        likeWriteBuffer.submit(filmIds.get(1), userIds.get(1), true);
+
+        likeWriteBuffer.stop();
+
+        assertThat(likeWriteBuffer.pendingCount()).isZero();
+        assertThat(countLikes()).isEqualTo(2);
+        assertThat(filmLeaderboard.findInconsistencies()).isEmpty();
+    }
+
+    @Test
+    void testFullBufferRejectsSubmitWhenDatabaseFails() {
+        FilmDbStorage failingStorage = new FilmDbStorage(jdbcTemplate, namedJdbcTemplate, filmMapper) {
+            @Override
+            public List<FilmLike> addLikes(List<FilmLike> likes) {
+                throw new DataAccessResourceFailureException("База данных недоступна");
+            }
+        };
+        LikeWriteBehindProperties properties = new LikeWriteBehindProperties(true, 2, 100, Duration.ofHours(1),
+                Duration.ofMillis(200));
+        LikeWriteBuffer buffer = new LikeWriteBuffer(failingStorage, List.of(filmLeaderboard), properties);
+        buffer.submit(filmIds.get(0), userIds.get(0), true);
+        buffer.submit(filmIds.get(0), userIds.get(1), true);
+
+        assertThatThrownBy(() -> buffer.submit(filmIds.get(1), userIds.get(0), true))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(buffer.pendingCount()).isEqualTo(2);
+        assertThat(countLikes()).isZero();
+    }
+
+    private int countLikes() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes", Integer.class);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import ru.yandex.practicum.filmorate.model.mappers.FilmMapper;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares filtered and unfiltered popular-film queries on 1M likes.
+ * Run with {@code mvn test -Dtest=PopularFilmsBenchmarkTest -Dfilmorate.benchmark=true}.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@ContextConfiguration(classes = {FilmDbStorage.class, FilmMapper.class})
+@EnabledIfSystemProperty(named = "filmorate.benchmark", matches = "true")
+class PopularFilmsBenchmarkTest {
+    private static final int USERS = 10_000;
+    private static final int FILMS = 5_000;
+    private static final int LIKES_PER_USER = 100;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 20;
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) " +
+                "SELECT 'bench' || X || '@example.com', 'bench' || X, 'Bench ' || X, DATE '1990-01-01' " +
+                "FROM SYSTEM_RANGE(1, ?)", USERS);
+        jdbcTemplate.update("INSERT INTO films (name, description, release_date, duration, mpa_id) " +
+                "SELECT 'Film ' || X, 'Description', DATEADD(DAY, MOD(X * 7, 365 * 40), DATE '1980-01-01'), 100, 1 " +
+                "FROM SYSTEM_RANGE(1, ?)", FILMS);
+        long firstFilmId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM films", Long.class);
+        long firstUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        jdbcTemplate.update("INSERT INTO film_genres (film_id, genre_id) SELECT id, MOD(id, 6) + 1 FROM films");
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) " +
+                        "SELECT ? + MOD(u.X * 37 + k.X * 101, ?), ? + u.X " +
+                        "FROM SYSTEM_RANGE(0, ?) u, SYSTEM_RANGE(0, ?) k",
+                firstFilmId, FILMS, firstUserId, USERS - 1, LIKES_PER_USER - 1);
+    }
+
+    @Test
+    void comparePopularFilmsLatency() {
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes", Long.class))
+                .isEqualTo((long) USERS * LIKES_PER_USER);
+
+        double unfiltered = measure(() -> filmStorage.getPopularFilms(10, null, null));
+        double byGenre = measure(() -> filmStorage.getPopularFilms(10, 3L, null));
+        double byYear = measure(() -> filmStorage.getPopularFilms(10, null, 2000));
+        double byGenreAndYear = measure(() -> filmStorage.getPopularFilms(10, 3L, 2000));
+
+        System.out.printf("popular films, avg ms: unfiltered=%.2f genre=%.2f year=%.2f genre+year=%.2f%n",
+                unfiltered, byGenre, byYear, byGenreAndYear);
+        assertThat(byYear).isLessThan(unfiltered);
+    }
+
+    private double measure(Supplier<?> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            query.get();
+        }
+        return (double) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started) / RUNS / 1000;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testLikesLookupsByFilmUseIndex() {
+        assertUsesIndex("LIKES", "SELECT film_id, user_id FROM likes WHERE film_id IN (1, 2)");
+        assertUsesIndex("LIKES", "SELECT 1 FROM likes l WHERE l.film_id = 1 AND l.user_id = 1");
+        assertUsesIndex("LIKES", "DELETE FROM likes WHERE film_id = 1 AND user_id = 1");
+    }
+
+    @Test
+    void testLikesLookupByUserUsesIndex() {
+        assertUsesIndex("LIKES", "SELECT film_id, user_id FROM likes WHERE user_id = 1");
+    }
+
+    @Test
+    void testFriendsLookupsByUserUseIndex() {
+        assertUsesIndex("FRIENDS", "SELECT user_id, friend_id, status FROM friends WHERE user_id IN (1, 2)");
+        assertUsesIndex("FRIENDS", "SELECT COUNT(*) FROM friends WHERE user_id = 2 AND friend_id = 1");
+        assertUsesIndex("FRIENDS", "DELETE FROM friends WHERE user_id = 1 AND friend_id = 2");
+    }
+
+    @Test
+    void testFriendsJoinUsesIndex() {
+        assertUsesIndex("FRIENDS", "SELECT u.* FROM users u " +
+                "JOIN friends f ON u.id = f.friend_id " +
+                "WHERE f.user_id = 1");
+    }
+
+    @Test
+    void testFriendsLookupByFriendUsesIndex() {
+        assertUsesIndex("FRIENDS", "SELECT user_id FROM friends WHERE friend_id = 1");
+    }
+
+    @Test
+    void testPopularFilmFacetsUseIndex() {
+        assertUsesIndex("FILM_GENRES", "SELECT fg.film_id FROM film_genres fg WHERE fg.genre_id = 1");
+        assertUsesIndex("FILMS", "SELECT f.id FROM films f " +
+                "WHERE f.release_date >= DATE '2000-01-01' AND f.release_date < DATE '2001-01-01'");
+    }
+
+    private void assertUsesIndex(String table, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        assertThat(plan)
+                .as(sql)
+                .doesNotContain("PUBLIC." + table + ".tableScan");
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.mappers.GenreMapper;
+import ru.yandex.practicum.filmorate.model.mappers.MpaMapper;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@ContextConfiguration(classes = {ReferenceDataStorage.class, GenreDbStorage.class, GenreMapper.class,
+        MpaDbStorage.class, MpaMapper.class, StatementCounter.class})
+class ReferenceDataStorageTest {
+
+    @Autowired
+    private ReferenceDataStorage referenceDataStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void testLookupsAreServedFromMemory() {
+        statementCounter.reset();
+
+        assertThat(referenceDataStorage.getAllGenres()).hasSize(6);
+        assertThat(referenceDataStorage.getAllMpa()).hasSize(5);
+        assertThat(referenceDataStorage.getGenreById(1)).contains(new Genre(1L, "Комедия"));
+        assertThat(referenceDataStorage.getMpaById(3)).contains(new Mpa(3L, "PG-13"));
+        assertThat(referenceDataStorage.getGenreById(100)).isEmpty();
+        assertThat(statementCounter.getCount()).isZero();
+    }
+
+    @Test
+    void testReturnedObjectsDoNotLeakIntoSnapshot() {
+        referenceDataStorage.getGenreById(1).orElseThrow().setName("Changed");
+
+        assertThat(referenceDataStorage.getGenreById(1)).contains(new Genre(1L, "Комедия"));
+    }
+
+    @Test
+    void testReloadPicksUpNewRows() {
+        jdbcTemplate.update("INSERT INTO genres (id, name) VALUES (?, ?)", 7, "Фантастика");
+
+        assertThat(referenceDataStorage.getGenreById(7)).isEmpty();
+
+        referenceDataStorage.reload();
+
+        assertThat(referenceDataStorage.getGenreById(7)).contains(new Genre(7L, "Фантастика"));
+    }
+}
@@ -6,23 +6,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.test.context.ContextConfiguration;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.model.mappers.UserMapper;
 import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @AutoConfigureTestDatabase
-@ContextConfiguration(classes = {UserDbStorage.class, UserMapper.class})
+@ContextConfiguration(classes = {UserDbStorage.class, UserMapper.class, StatementCounter.class})
 class UserDbStorageTest {
 
     @Autowired
     private UserDbStorage userStorage;
 
+    @Autowired
+    private StatementCounter statementCounter;
+
     private User testUser;
 
     @BeforeEach
@@ -82,4 +89,86 @@ class UserDbStorageTest {
 
         assertThat(userStorage.getUserById(addedUser.getId())).isEmpty();
     }
+
+    @Test
+    void testGetFriendsLoadsFriendMapsInOneQuery() {
+        User user = userStorage.addUser(testUser);
+        User first = userStorage.addUser(newUser("first"));
+        User second = userStorage.addUser(newUser("second"));
+        userStorage.addFriend(user.getId(), first.getId());
+        userStorage.addFriend(user.getId(), second.getId());
+        userStorage.addFriend(first.getId(), user.getId());
+
+        statementCounter.reset();
+        Collection<User> friends = userStorage.getFriends(user.getId());
+
+        assertThat(statementCounter.getCount()).isEqualTo(2);
+        assertThat(friends).hasSize(2);
+        assertThat(friends)
+                .filteredOn(friend -> friend.getId().equals(first.getId()))
+                .singleElement()
+                .satisfies(friend -> assertThat(friend.getFriends())
+                        .containsEntry(user.getId(), FriendshipStatus.CONFIRMED));
+    }
+
+    @Test
+    void testGetAllUsersWithoutFriendsSkipsFriendMaps() {
+        User user = userStorage.addUser(testUser);
+        User friend = userStorage.addUser(newUser("friend"));
+        userStorage.addFriend(user.getId(), friend.getId());
+
+        statementCounter.reset();
+        Collection<User> users = userStorage.getAllUsers(false);
+
+        assertThat(statementCounter.getCount()).isEqualTo(1);
+        assertThat(users).hasSize(2);
+        assertThat(users).allSatisfy(u -> assertThat(u.getFriends()).isNull());
+    }
+
+    @Test
+    void testAddFriendTwiceKeepsSingleRow() {
+        User user = userStorage.addUser(testUser);
+        User friend = userStorage.addUser(newUser("friend"));
+
+        userStorage.addFriend(user.getId(), friend.getId());
+        userStorage.addFriend(user.getId(), friend.getId());
+
+        assertThat(userStorage.getFriends(user.getId())).hasSize(1);
+    }
+
+    @Test
+    void testFindExistingIdsChecksBothUsersInOneQuery() {
+        User user = userStorage.addUser(testUser);
+
+        statementCounter.reset();
+        Set<Long> existing = userStorage.findExistingIds(List.of(user.getId(), -1L));
+
+        assertThat(statementCounter.getCount()).isEqualTo(1);
+        assertThat(existing).containsExactly(user.getId());
+        assertThat(userStorage.existsById(user.getId())).isTrue();
+        assertThat(userStorage.existsById(-1)).isFalse();
+    }
+
+    private User newUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1995, 5, 5));
+        return user;
+    }
+
+    @Test
+    void testGetUsersAfterPagesByIdInOrder() {
+        User first = userStorage.addUser(testUser);
+        User second = userStorage.addUser(newUser("second"));
+        User third = userStorage.addUser(newUser("third"));
+
+        List<User> firstPage = userStorage.getUsersAfter(0, 2, true);
+        List<User> lastPage = userStorage.getUsersAfter(firstPage.get(1).getId(), 2, false);
+
+        assertThat(firstPage).extracting(User::getId).containsExactly(first.getId(), second.getId());
+        assertThat(lastPage).extracting(User::getId).containsExactly(third.getId());
+        assertThat(lastPage.get(0).getFriends()).isNull();
+    }
 }
\ No newline at end of file